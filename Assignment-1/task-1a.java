@@ -37,6 +37,8 @@
 
 package Question1;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class Question1 {
 
@@ -75,6 +77,351 @@ public class Question1 {
         return c;
     }
 
+    // Same greedy as maximizeCapital, but on primitive storage only: the projects are
+    // kept as two parallel int arrays sorted by investment and the affordable revenues
+    // live in an int max-heap, so nothing is boxed per project.
+    public static int maximizeCapitalPrimitive(int k, int c, int[] revenues, int[] investments) {
+        int n = revenues.length;
+        int[] sortedInvestments = new int[n];
+        int[] sortedRevenues = new int[n];
+        sortByInvestment(revenues, investments, sortedInvestments, sortedRevenues);
+
+        IntMaxHeap maxHeap = new IntMaxHeap(n);
+
+        int i = 0;
+        for (int j = 0; j < k; j++) {
+            while (i < n && sortedInvestments[i] <= c) {
+                maxHeap.push(sortedRevenues[i]);
+                i++;
+            }
+
+            if (maxHeap.isEmpty()) {
+                break;
+            }
+
+            c += maxHeap.pop();
+        }
+
+        return c;
+    }
+
+    // Overflow-safe variant: capital is a long and every addition is checked, so large
+    // portfolios cannot silently wrap around and steer the greedy to the wrong projects.
+    public static long maximizeCapital(int k, long c, int[] revenues, int[] investments) {
+        int n = revenues.length;
+        int[] sortedInvestments = new int[n];
+        int[] sortedRevenues = new int[n];
+        sortByInvestment(revenues, investments, sortedInvestments, sortedRevenues);
+        return maximizeCapitalSorted(k, c, sortedInvestments, sortedRevenues, new IntMaxHeap(n));
+    }
+
+    // Greedy over projects already sorted by investment. Once the capital covers the
+    // largest investment every remaining project is affordable, so the answer is just
+    // the sum of the best remaining revenues: those are picked with a selection step
+    // instead of one heap poll per project.
+    static long maximizeCapitalSorted(int k, long c, int[] sortedInvestments, int[] sortedRevenues,
+                                      IntMaxHeap maxHeap) {
+        int n = sortedInvestments.length;
+        maxHeap.clear();
+
+        int i = 0;
+        for (int j = 0; j < k; j++) {
+            if (n > 0 && c >= sortedInvestments[n - 1]) {
+                while (i < n) {
+                    maxHeap.appendUnordered(sortedRevenues[i]);
+                    i++;
+                }
+                return Math.addExact(c, maxHeap.drainTopSum(k - j));
+            }
+
+            while (i < n && sortedInvestments[i] <= c) {
+                maxHeap.push(sortedRevenues[i]);
+                i++;
+            }
+
+            if (maxHeap.isEmpty()) {
+                break;
+            }
+
+            c = Math.addExact(c, maxHeap.pop());
+        }
+
+        return c;
+    }
+
+    // A project set sorted once by investment, answering many (k, initial capital)
+    // scenarios against that shared index. Heap buffers belong to a single call: a batch
+    // is cut into slices that each reuse one heap, so nothing outlives the call.
+    public static final class ProjectPortfolio {
+        private final int[] sortedInvestments;
+        private final int[] sortedRevenues;
+
+        public ProjectPortfolio(int[] revenues, int[] investments) {
+            int n = revenues.length;
+            sortedInvestments = new int[n];
+            sortedRevenues = new int[n];
+            sortByInvestment(revenues, investments, sortedInvestments, sortedRevenues);
+        }
+
+        public int size() {
+            return sortedInvestments.length;
+        }
+
+        public long maximizeCapital(int k, long c) {
+            return maximizeCapitalSorted(k, c, sortedInvestments, sortedRevenues, new IntMaxHeap(16));
+        }
+
+        public long[] maximizeCapitalAll(int[] ks, long[] capitals) {
+            return maximizeCapitalAll(ks, capitals, ForkJoinPool.commonPool());
+        }
+
+        // Scenarios are independent, so they are answered in parallel on the given pool,
+        // in a few slices per worker; each slice grows one heap and reuses it throughout
+        public long[] maximizeCapitalAll(int[] ks, long[] capitals, ForkJoinPool pool) {
+            if (ks.length != capitals.length) {
+                throw new IllegalArgumentException("ks and capitals must have the same length");
+            }
+            long[] results = new long[ks.length];
+            int slices = Math.min(ks.length, 4 * pool.getParallelism());
+            pool.submit(() -> IntStream.range(0, slices).parallel().forEach(slice -> {
+                IntMaxHeap heap = new IntMaxHeap(16);
+                int from = (int) ((long) ks.length * slice / slices);
+                int to = (int) ((long) ks.length * (slice + 1) / slices);
+                for (int q = from; q < to; q++) {
+                    results[q] = maximizeCapitalSorted(ks[q], capitals[q], sortedInvestments, sortedRevenues, heap);
+                }
+            })).join();
+            return results;
+        }
+    }
+
+    // Streaming mode of the same sorted-by-investment plus max-heap idea: projects can
+    // arrive at any time and the caller takes the next best affordable one whenever it
+    // wants. Projects that are not affordable yet wait in a min-heap keyed by investment,
+    // so an insert is O(log n) and nothing is ever re-sorted.
+    public static final class StreamingPortfolio {
+        private final LongMinHeap pending = new LongMinHeap(16);
+        private final IntMaxHeap affordable = new IntMaxHeap(16);
+        private long capital;
+        private int completed;
+
+        public StreamingPortfolio(long initialCapital) {
+            capital = initialCapital;
+        }
+
+        public void addProject(int revenue, int investment) {
+            if (investment <= capital) {
+                affordable.push(revenue);
+            } else {
+                // investment in the high bits orders the pending heap, revenue rides along
+                pending.push(((long) investment << 32) | (revenue & 0xFFFFFFFFL));
+            }
+        }
+
+        // Completes the most profitable affordable project; false if none can be afforded
+        public boolean takeNextBest() {
+            while (!pending.isEmpty() && (int) (pending.peek() >> 32) <= capital) {
+                affordable.push((int) pending.pop());
+            }
+
+            if (affordable.isEmpty()) {
+                return false;
+            }
+
+            capital = Math.addExact(capital, affordable.pop());
+            completed++;
+            return true;
+        }
+
+        // Takes up to k projects and returns the resulting capital
+        public long takeNextBest(int k) {
+            int taken = 0;
+            while (taken < k && takeNextBest()) {
+                taken++;
+            }
+            return capital;
+        }
+
+        public long capital() {
+            return capital;
+        }
+
+        public int completedProjects() {
+            return completed;
+        }
+
+        public int pendingProjects() {
+            return pending.size() + affordable.size();
+        }
+    }
+
+    // Primitive index sort: each project becomes one long key (investment in the high
+    // 32 bits, project index in the low 32 bits), so Arrays.sort(long[]) orders the
+    // projects by investment without a comparator or any per-project object.
+    static void sortByInvestment(int[] revenues, int[] investments,
+                                 int[] sortedInvestments, int[] sortedRevenues) {
+        int n = revenues.length;
+        if (investments.length != n) {
+            throw new IllegalArgumentException("revenues and investments must have the same length");
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) investments[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        for (int i = 0; i < n; i++) {
+            int index = (int) keys[i];
+            sortedInvestments[i] = investments[index];
+            sortedRevenues[i] = revenues[index];
+        }
+    }
+
+    // Binary min-heap over a plain long array
+    static final class LongMinHeap {
+        private long[] heap;
+        private int size;
+
+        LongMinHeap(int capacity) {
+            heap = new long[Math.max(capacity, 1)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (last <= heap[child]) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+
+    // Binary max-heap over a plain int array
+    static final class IntMaxHeap {
+        private int[] heap;
+        private int size;
+
+        IntMaxHeap(int capacity) {
+            heap = new int[Math.max(capacity, 1)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(int value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= value) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        int pop() {
+            int top = heap[0];
+            int last = heap[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+                if (last >= heap[child]) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+
+        // Adds a value without restoring heap order; only drainTopSum may follow
+        void appendUnordered(int value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size++] = value;
+        }
+
+        // Sum of the r largest values (quickselect), leaving the heap empty
+        long drainTopSum(int r) {
+            long sum = 0;
+            if (r >= size) {
+                for (int i = 0; i < size; i++) sum += heap[i];
+            } else if (r > 0) {
+                int target = size - r;
+                int lo = 0, hi = size - 1;
+                while (lo < hi) {
+                    int pivot = heap[(lo + hi) >>> 1];
+                    int a = lo, b = hi;
+                    while (a <= b) {
+                        while (heap[a] < pivot) a++;
+                        while (heap[b] > pivot) b--;
+                        if (a <= b) {
+                            int tmp = heap[a];
+                            heap[a] = heap[b];
+                            heap[b] = tmp;
+                            a++;
+                            b--;
+                        }
+                    }
+                    if (target <= b) hi = b;
+                    else if (target >= a) lo = a;
+                    else break;
+                }
+                for (int i = target; i < size; i++) sum += heap[i];
+            }
+            size = 0;
+            return sum;
+        }
+    }
+
     // Example usage
     public static void main(String[] args) {
         int[] revenues1 = {2, 5, 8};
@@ -84,5 +431,22 @@ public class Question1 {
         int[] revenues2 = {3, 6, 10};
         int[] investments2 = {1, 3, 5};
         System.out.println(maximizeCapital(3, 1, revenues2, investments2)); // Output: 19
+
+        System.out.println(maximizeCapitalPrimitive(2, 0, revenues1, investments1)); // Output: 7
+
+        int[] revenues3 = {2_000_000_000, 2_000_000_000};
+        int[] investments3 = {0, 0};
+        System.out.println(maximizeCapital(2, 0L, revenues3, investments3)); // Output: 4000000000
+
+        ProjectPortfolio portfolio = new ProjectPortfolio(revenues2, investments2);
+        long[] scenarios = portfolio.maximizeCapitalAll(new int[]{1, 2, 3}, new long[]{1, 1, 1});
+        System.out.println(Arrays.toString(scenarios)); // Output: [4, 10, 20]
+
+        StreamingPortfolio stream = new StreamingPortfolio(0);
+        stream.addProject(2, 0);
+        stream.addProject(8, 3);
+        stream.takeNextBest();
+        stream.addProject(5, 2);
+        System.out.println(stream.takeNextBest(1)); // Output: 7
     }
 }
\ No newline at end of file
@@ -33,68 +33,397 @@
 
 
 package Question1;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 public class Question1b {
 
+    // Histogram buckets of the bulk audit; the last bucket collects every larger count
+    public static final int HISTOGRAM_BUCKETS = 32;
+
+    // Each parallel chunk owns the records that start inside it
+    static final int CHUNK_BYTES = 64 << 20;
+
+    // A record may run past the end of its chunk by at most this many bytes
+    static final int MAX_RECORD_BYTES = 1 << 16;
+
+    // Character classes as bits
+    public static final int LOWER = 1, UPPER = 2, DIGIT = 4, SYMBOL = 8;
+
+    // Class bits of every byte value; anything that is not an ASCII letter or digit is a symbol
+    private static final byte[] CLASS_OF = new byte[256];
+    static {
+        Arrays.fill(CLASS_OF, (byte) SYMBOL);
+        for (int ch = 'a'; ch <= 'z'; ch++) CLASS_OF[ch] = LOWER;
+        for (int ch = 'A'; ch <= 'Z'; ch++) CLASS_OF[ch] = UPPER;
+        for (int ch = '0'; ch <= '9'; ch++) CLASS_OF[ch] = DIGIT;
+    }
+
+    // Single pass: character classes and repeat runs are collected together. Runs only
+    // matter through length / 3 and length % 3, so they are kept as three counters
+    // instead of being re-scanned when deletions have to be applied.
     public static int strongPINChanges(String pin_code) {
         int n = pin_code.length();
+        int classes = 0;
+        int replace = 0, modZero = 0, modOne = 0;
 
-        // 1. Check for missing character types
-        boolean hasLower = false, hasUpper = false, hasDigit = false;
-        for (char ch : pin_code.toCharArray()) {
-            if (Character.isLowerCase(ch)) hasLower = true;
-            else if (Character.isUpperCase(ch)) hasUpper = true;
-            else if (Character.isDigit(ch)) hasDigit = true;
-        }
-        int missingTypes = 0;
-        if (!hasLower) missingTypes++;
-        if (!hasUpper) missingTypes++;
-        if (!hasDigit) missingTypes++;
-
-        // 2. Count repeating sequences
-        int replace = 0;
-        int i = 2;
-        while (i < n) {
-            if (pin_code.charAt(i) == pin_code.charAt(i - 1) && pin_code.charAt(i) == pin_code.charAt(i - 2)) {
-                int length = 2;
-                while (i < n && pin_code.charAt(i) == pin_code.charAt(i - 1)) {
-                    length++;
-                    i++;
+        int run = 0;
+        char prev = 0;
+        for (int i = 0; i < n; i++) {
+            char ch = pin_code.charAt(i);
+            classes |= ch < 128 ? CLASS_OF[ch] : unicodeClass(ch);
+
+            if (i > 0 && ch == prev) {
+                run++;
+            } else {
+                if (run >= 3) {
+                    replace += run / 3;
+                    if (run % 3 == 0) modZero++;
+                    else if (run % 3 == 1) modOne++;
                 }
-                replace += length / 3;
+                run = 1;
+                prev = ch;
+            }
+        }
+        if (run >= 3) {
+            replace += run / 3;
+            if (run % 3 == 0) modZero++;
+            else if (run % 3 == 1) modOne++;
+        }
+
+        return changesFor(n, classes, replace, modZero, modOne);
+    }
+
+    private static int unicodeClass(char ch) {
+        if (Character.isLowerCase(ch)) return LOWER;
+        if (Character.isUpperCase(ch)) return UPPER;
+        if (Character.isDigit(ch)) return DIGIT;
+        return SYMBOL;
+    }
+
+    // Same scoring as strongPINChanges, on the ASCII bytes buf[from, to) of one record
+    static int strongPINChanges(ByteBuffer buf, int from, int to) {
+        int classes = 0;
+        int replace = 0, modZero = 0, modOne = 0;
+
+        int run = 0;
+        byte prev = 0;
+        for (int p = from; p < to; p++) {
+            byte ch = buf.get(p);
+            classes |= CLASS_OF[ch & 0xFF];
+
+            if (p > from && ch == prev) {
+                run++;
             } else {
-                i++;
+                if (run >= 3) {
+                    replace += run / 3;
+                    if (run % 3 == 0) modZero++;
+                    else if (run % 3 == 1) modOne++;
+                }
+                run = 1;
+                prev = ch;
             }
         }
+        if (run >= 3) {
+            replace += run / 3;
+            if (run % 3 == 0) modZero++;
+            else if (run % 3 == 1) modOne++;
+        }
+
+        return changesFor(to - from, classes, replace, modZero, modOne);
+    }
+
+    // replace is the sum of length / 3 over all runs of 3 or more; modZero and modOne
+    // count those runs with length % 3 == 0 and == 1
+    private static int changesFor(int n, int classes, int replace, int modZero, int modOne) {
+        int missingTypes = 3 - Integer.bitCount(classes & (LOWER | UPPER | DIGIT));
 
-        // 3. Handle length adjustments
         if (n < 6) {
             return Math.max(missingTypes, 6 - n);
         } else if (n <= 20) {
             return Math.max(missingTypes, replace);
-        } else {
-            int delete = n - 20;
-            int remainingDelete = delete;
+        }
 
-            // Optimize replacements using deletions
-            i = 2;
-            while (i < n && remainingDelete > 0) {
-                if (pin_code.charAt(i) == pin_code.charAt(i - 1) && pin_code.charAt(i) == pin_code.charAt(i - 2)) {
-                    int length = 3;
-                    i++;
-                    while (i < n && pin_code.charAt(i) == pin_code.charAt(i - 1)) {
-                        length++;
-                        i++;
-                    }
-                    int reduce = Math.min(remainingDelete, length - 2);
-                    replace -= reduce / 3;
-                    remainingDelete -= reduce;
+        // Deletions save a replacement cheapest on runs with length % 3 == 0 (one deletion),
+        // then on length % 3 == 1 (two deletions), then every three deletions anywhere
+        int delete = n - 20;
+        replace -= Math.min(delete, modZero);
+        replace -= Math.min(Math.max(delete - modZero, 0), modOne * 2) / 2;
+        replace -= Math.max(delete - modZero - 2 * modOne, 0) / 3;
+
+        return delete + Math.max(missingTypes, replace);
+    }
+
+    // Scores PINs against one compiled policy; implementations are thread-safe
+    public interface PinScorer {
+        int changes(String pin);
+
+        // Scores the ASCII bytes buf[from, to) of one record
+        int changes(ByteBuffer buf, int from, int to);
+    }
+
+    // A PIN policy: length bounds, the character classes that must appear (LOWER, UPPER,
+    // DIGIT, SYMBOL bits) and the longest run of one repeated character that is allowed.
+    // The hard-coded policy of strongPINChanges is DEFAULT.
+    public static final class PinPolicy {
+        public static final PinPolicy DEFAULT = new PinPolicy(6, 20, LOWER | UPPER | DIGIT, 2);
+
+        private final int minLength;
+        private final int maxLength;
+        private final int requiredClasses;
+        private final int maxRun;
+
+        public PinPolicy(int minLength, int maxLength, int requiredClasses, int maxRun) {
+            if (minLength < 0 || maxLength < minLength) {
+                throw new IllegalArgumentException("invalid length bounds " + minLength + ".." + maxLength);
+            }
+            if ((requiredClasses & ~(LOWER | UPPER | DIGIT | SYMBOL)) != 0
+                    || Integer.bitCount(requiredClasses) > Math.max(maxLength, 0)) {
+                throw new IllegalArgumentException("invalid class set " + requiredClasses);
+            }
+            if (maxRun < 1) {
+                throw new IllegalArgumentException("maxRun must be at least 1");
+            }
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.requiredClasses = requiredClasses;
+            this.maxRun = maxRun;
+        }
+
+        // The default policy compiles to the hand-tuned strongPINChanges path, any other
+        // policy to an evaluator with its bounds and class mask fixed as final fields
+        public PinScorer compile() {
+            if (minLength == 6 && maxLength == 20 && requiredClasses == (LOWER | UPPER | DIGIT) && maxRun == 2) {
+                return DefaultPinScorer.INSTANCE;
+            }
+            return new CompiledPinPolicy(minLength, maxLength, requiredClasses, maxRun);
+        }
+    }
+
+    private enum DefaultPinScorer implements PinScorer {
+        INSTANCE;
+
+        @Override
+        public int changes(String pin) {
+            return strongPINChanges(pin);
+        }
+
+        @Override
+        public int changes(ByteBuffer buf, int from, int to) {
+            return strongPINChanges(buf, from, to);
+        }
+    }
+
+    // General evaluator. With period = maxRun + 1, a run of length L needs L / period
+    // replacements; runs shorter than period are never recorded.
+    private static final class CompiledPinPolicy implements PinScorer {
+        private final int minLength;
+        private final int maxLength;
+        private final int requiredClasses;
+        private final int maxRun;
+        private final int period;
+        private final ThreadLocal<int[]> runBuffers = ThreadLocal.withInitial(() -> new int[16]);
+
+        CompiledPinPolicy(int minLength, int maxLength, int requiredClasses, int maxRun) {
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.requiredClasses = requiredClasses;
+            this.maxRun = maxRun;
+            this.period = maxRun == Integer.MAX_VALUE ? Integer.MAX_VALUE : maxRun + 1;
+        }
+
+        @Override
+        public int changes(String pin) {
+            int n = pin.length();
+            int[] runs = runBuffers.get();
+            int runCount = 0;
+            int classes = 0;
+
+            int run = 0;
+            char prev = 0;
+            for (int i = 0; i < n; i++) {
+                char ch = pin.charAt(i);
+                classes |= ch < 128 ? CLASS_OF[ch] : unicodeClass(ch);
+
+                if (i > 0 && ch == prev) {
+                    run++;
                 } else {
-                    i++;
+                    if (run >= period) runs = addRun(runs, runCount++, run);
+                    run = 1;
+                    prev = ch;
+                }
+            }
+            if (run >= period) runs = addRun(runs, runCount++, run);
+
+            return changesFor(n, classes, runs, runCount);
+        }
+
+        @Override
+        public int changes(ByteBuffer buf, int from, int to) {
+            int[] runs = runBuffers.get();
+            int runCount = 0;
+            int classes = 0;
+
+            int run = 0;
+            byte prev = 0;
+            for (int p = from; p < to; p++) {
+                byte ch = buf.get(p);
+                classes |= CLASS_OF[ch & 0xFF];
+
+                if (p > from && ch == prev) {
+                    run++;
+                } else {
+                    if (run >= period) runs = addRun(runs, runCount++, run);
+                    run = 1;
+                    prev = ch;
+                }
+            }
+            if (run >= period) runs = addRun(runs, runCount++, run);
+
+            return changesFor(to - from, classes, runs, runCount);
+        }
+
+        private int[] addRun(int[] runs, int index, int length) {
+            if (index == runs.length) {
+                runs = Arrays.copyOf(runs, index * 2);
+                runBuffers.set(runs);
+            }
+            runs[index] = length;
+            return runs;
+        }
+
+        private int changesFor(int n, int classes, int[] runs, int runCount) {
+            int missingTypes = Integer.bitCount(requiredClasses & ~classes);
+            int replace = 0;
+            for (int i = 0; i < runCount; i++) replace += runs[i] / period;
+
+            if (n < minLength) {
+                return Math.max(missingTypes, shortChanges(minLength - n, runs, runCount, replace));
+            } else if (n <= maxLength) {
+                return Math.max(missingTypes, replace);
+            }
+
+            // A run of length L loses one replacement after L % period + 1 deletions, so
+            // runs are served in order of that remainder (insertion sort, runs are few)
+            for (int i = 1; i < runCount; i++) {
+                int length = runs[i];
+                int j = i - 1;
+                while (j >= 0 && runs[j] % period > length % period) {
+                    runs[j + 1] = runs[j];
+                    j--;
                 }
+                runs[j + 1] = length;
+            }
+
+            int delete = n - maxLength;
+            int remainingDelete = delete;
+            for (int i = 0; i < runCount && remainingDelete > 0; i++) {
+                int cost = runs[i] % period + 1;
+                if (cost > remainingDelete) break;
+                remainingDelete -= cost;
+                replace--;
             }
+            replace -= remainingDelete / period;
 
             return delete + Math.max(missingTypes, replace);
         }
+
+        // Too short: the inserts are mandatory. Placed inside a run, an insert removes
+        // maxRun characters from the part still to be fixed, while a replacement removes
+        // period of them, so each insert saves a replacement unless the remaining part is
+        // an exact multiple of period. The runs array is reused as that remaining part.
+        private int shortChanges(int inserts, int[] runs, int runCount, int replace) {
+            for (int i = 0; i < runCount; i++) runs[i] -= maxRun;
+
+            int replaceLeft = replace;
+            for (int k = 0; k < inserts && replaceLeft > 0; k++) {
+                int best = -1;
+                for (int i = 0; i < runCount; i++) {
+                    if (runs[i] <= 0) continue;
+                    if (runs[i] % period != 0) {
+                        best = i;
+                        break;
+                    }
+                    if (best < 0 || runs[i] > runs[best]) best = i;
+                }
+                if (runs[best] % period != 0) replaceLeft--;
+                runs[best] -= maxRun;
+            }
+
+            return inserts + replaceLeft;
+        }
+    }
+
+    // Bulk audit of a file of newline-delimited PINs. The file is memory-mapped and
+    // scored in parallel chunks straight from the bytes, without creating a String per
+    // record. Returns how many PINs need 0, 1, 2, ... changes (empty lines are skipped).
+    public static long[] auditPinFile(Path path) throws IOException {
+        return auditPinFile(path, PinPolicy.DEFAULT.compile());
+    }
+
+    public static long[] auditPinFile(Path path, PinScorer scorer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+            try {
+                return IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> auditChunk(channel, size, (long) c * CHUNK_BYTES, scorer))
+                    .reduce(new long[HISTOGRAM_BUCKETS], Question1b::mergeHistograms);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static long[] auditChunk(FileChannel channel, long size, long start, PinScorer scorer) {
+        long end = Math.min(size, start + CHUNK_BYTES);
+        // Map one byte before the chunk to see whether a record starts exactly at start
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_RECORD_BYTES);
+        MappedByteBuffer buf;
+        try {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long[] histogram = new long[HISTOGRAM_BUCKETS];
+        int limit = (int) (mapEnd - mapStart);
+        int chunkEnd = (int) (end - mapStart);
+        int p = 0;
+        if (start > 0) {
+            // The record straddling the boundary belongs to the previous chunk
+            while (p < limit && buf.get(p) != '\n') p++;
+            p++;
+        }
+
+        while (p < chunkEnd) {
+            int q = p;
+            while (q < limit && buf.get(q) != '\n') q++;
+            if (q == limit && mapEnd < size) {
+                throw new UncheckedIOException(new IOException(
+                    "PIN record at byte " + (mapStart + p) + " is longer than " + MAX_RECORD_BYTES + " bytes"));
+            }
+            int recordEnd = (q > p && buf.get(q - 1) == '\r') ? q - 1 : q;
+            if (recordEnd > p) {
+                histogram[Math.min(scorer.changes(buf, p, recordEnd), HISTOGRAM_BUCKETS - 1)]++;
+            }
+            p = q + 1;
+        }
+        return histogram;
+    }
+
+    private static long[] mergeHistograms(long[] a, long[] b) {
+        long[] merged = Arrays.copyOf(a, a.length);
+        for (int i = 0; i < merged.length; i++) merged[i] += b[i];
+        return merged;
     }
 
     public static void main(String[] args) {
@@ -102,5 +431,9 @@ public class Question1b {
         System.out.println(strongPINChanges("123456"));      // Output: 2
         System.out.println(strongPINChanges("Aa1234!"));     // Output: 0
         System.out.println(strongPINChanges("aaaa1111AAAA"));// Output depends on length and structure
+        System.out.println(strongPINChanges("bbaaaaaaaaaaaaaaacccccc")); // Output: 8
+
+        PinScorer cardPolicy = new PinPolicy(8, 16, LOWER | DIGIT | SYMBOL, 1).compile();
+        System.out.println(cardPolicy.changes("aa11!"));  // Output: 3
     }
 }
@@ -45,6 +45,9 @@
 
 package Question2;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 public class Question2a {
 
@@ -73,6 +76,501 @@ public class Question2a {
         return count;
     }
 
+    // O(n log n) engine: the prefix sums are coordinate-compressed once and counted in a
+    // primitive Fenwick tree, so there is no boxing and no walk over a whole sub-map per
+    // day. The count is a long because long series have more than 2^31 periods.
+    public static long countAnomalousPeriodsFenwick(int[] temperature_changes, int low, int high) {
+        int n = temperature_changes.length;
+        if (low > high) return 0;
+
+        long[] prefix = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            prefix[i + 1] = prefix[i] + temperature_changes[i];
+        }
+
+        // Sorted distinct prefix sums; a prefix sum's Fenwick slot is its rank + 1
+        long[] sorted = prefix.clone();
+        Arrays.sort(sorted);
+        int m = 0;
+        for (int i = 0; i <= n; i++) {
+            if (m == 0 || sorted[i] != sorted[m - 1]) sorted[m++] = sorted[i];
+        }
+
+        int[] tree = new int[m + 1];
+        fenwickAdd(tree, lowerBound(sorted, m, prefix[0]) + 1);
+
+        long count = 0;
+        for (int j = 1; j <= n; j++) {
+            // Earlier prefix sums p with prefix[j] - high <= p <= prefix[j] - low
+            int from = lowerBound(sorted, m, prefix[j] - high);
+            int to = lowerBound(sorted, m, prefix[j] - low + 1);
+            count += fenwickSum(tree, to) - fenwickSum(tree, from);
+
+            fenwickAdd(tree, lowerBound(sorted, m, prefix[j]) + 1);
+        }
+
+        return count;
+    }
+
+    // Many [low, high] bands over one series. With f(x) = number of periods whose total
+    // is <= x, a band's count is f(high) - f(low - 1), so every band boils down to two
+    // thresholds. All thresholds are counted in one bottom-up merge sort of the prefix
+    // sums: when two sorted runs are merged, the periods starting in the left run and
+    // ending in the right run are counted per threshold with a two-pointer scan.
+    public static long[] countAnomalousPeriods(int[] temperature_changes, int[][] bands) {
+        int n = temperature_changes.length;
+
+        long[] thresholds = new long[2 * bands.length];
+        for (int b = 0; b < bands.length; b++) {
+            thresholds[2 * b] = bands[b][1];
+            thresholds[2 * b + 1] = (long) bands[b][0] - 1;
+        }
+        Arrays.sort(thresholds);
+        int t = 0;
+        for (int i = 0; i < thresholds.length; i++) {
+            if (t == 0 || thresholds[i] != thresholds[t - 1]) thresholds[t++] = thresholds[i];
+        }
+
+        long[] src = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            src[i + 1] = src[i] + temperature_changes[i];
+        }
+        long[] dst = new long[n + 1];
+
+        long[] atMost = new long[t];
+        for (int width = 1; width <= n; width *= 2) {
+            for (int lo = 0; lo <= n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n + 1);
+                int hi = Math.min(lo + 2 * width, n + 1);
+                for (int k = 0; k < t; k++) {
+                    atMost[k] += countCrossPairs(src, lo, mid, hi, thresholds[k]);
+                }
+                merge(src, dst, lo, mid, hi);
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+
+        long[] counts = new long[bands.length];
+        for (int b = 0; b < bands.length; b++) {
+            int low = bands[b][0], high = bands[b][1];
+            if (low > high) continue;
+            counts[b] = atMost[Arrays.binarySearch(thresholds, 0, t, high)]
+                - atMost[Arrays.binarySearch(thresholds, 0, t, (long) low - 1)];
+        }
+        return counts;
+    }
+
+    // Ranges at most this long are sorted, counted and merged without forking
+    static final int PARALLEL_CUTOFF = 1 << 13;
+
+    public static long countAnomalousPeriodsParallel(int[] temperature_changes, int low, int high) {
+        return countAnomalousPeriodsParallel(temperature_changes, low, high, ForkJoinPool.commonPool());
+    }
+
+    // Fork-join merge sort of the prefix sums. Periods inside each half are counted by the
+    // forked subtasks; periods crossing the boundary are counted on the two sorted runs,
+    // with the right run split into blocks that are scanned in parallel, and the runs
+    // are merged in parallel too. The result equals the sequential count exactly.
+    public static long countAnomalousPeriodsParallel(int[] temperature_changes, int low, int high,
+                                                     ForkJoinPool pool) {
+        int n = temperature_changes.length;
+        if (low > high) return 0;
+
+        long[] prefix = new long[n + 1];
+        for (int i = 0; i < n; i++) prefix[i + 1] = temperature_changes[i];
+        Arrays.parallelPrefix(prefix, Long::sum);
+
+        long[] scratch = prefix.clone();
+        return pool.invoke(new SortCountTask(scratch, prefix, 0, n + 1, low, high));
+    }
+
+    // Sorts dst[lo, hi) and returns the in-range periods inside it. On entry src and
+    // dst hold the same values over [lo, hi); the halves are sorted into src and then
+    // merged back into dst, so the two buffers swap roles at every level.
+    private static final class SortCountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] src, dst;
+        private final int lo, hi;
+        private final long low, high;
+
+        SortCountTask(long[] src, long[] dst, int lo, int hi, long low, long high) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo <= PARALLEL_CUTOFF) {
+                return sortCount(src, dst, lo, hi, low, high);
+            }
+            int mid = (lo + hi) >>> 1;
+            SortCountTask left = new SortCountTask(dst, src, lo, mid, low, high);
+            left.fork();
+            long count = new SortCountTask(dst, src, mid, hi, low, high).compute();
+            count += left.join();
+
+            CrossCountTask cross = new CrossCountTask(src, lo, mid, mid, hi, low, high);
+            cross.fork();
+            new MergeTask(src, lo, mid, mid, hi, dst, lo).compute();
+            return count + cross.join();
+        }
+    }
+
+    private static long sortCount(long[] src, long[] dst, int lo, int hi, long low, long high) {
+        if (hi - lo < 2) return 0;
+        int mid = (lo + hi) >>> 1;
+        long count = sortCount(dst, src, lo, mid, low, high) + sortCount(dst, src, mid, hi, low, high);
+        count += countCrossRange(src, lo, mid, mid, hi, low, high);
+        merge(src, dst, lo, mid, hi);
+        return count;
+    }
+
+    // Pairs (i in [lo, mid), j in [from, to)) of sorted runs with low <= a[j] - a[i] <= high
+    static long countCrossRange(long[] a, int lo, int mid, int from, int to, long low, long high) {
+        if (from >= to) return 0;
+        int first = lowerBound(a, lo, mid, a[from] - high);
+        int last = lowerBound(a, lo, mid, a[from] - low + 1);
+        long pairs = 0;
+        for (int j = from; j < to; j++) {
+            while (first < mid && a[first] < a[j] - high) first++;
+            while (last < mid && a[last] <= a[j] - low) last++;
+            pairs += last - first;
+        }
+        return pairs;
+    }
+
+    private static final class CrossCountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final int lo, mid, from, to;
+        private final long low, high;
+
+        CrossCountTask(long[] a, int lo, int mid, int from, int to, long low, long high) {
+            this.a = a;
+            this.lo = lo;
+            this.mid = mid;
+            this.from = from;
+            this.to = to;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_CUTOFF) {
+                return countCrossRange(a, lo, mid, from, to, low, high);
+            }
+            int split = (from + to) >>> 1;
+            CrossCountTask left = new CrossCountTask(a, lo, mid, from, split, low, high);
+            left.fork();
+            long right = new CrossCountTask(a, lo, mid, split, to, low, high).compute();
+            return right + left.join();
+        }
+    }
+
+    // Merges the sorted runs src[aLo, aHi) and src[bLo, bHi) into dst from dLo, splitting
+    // the larger run at its middle and the other run at the matching rank
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] src, dst;
+        private final int aLo, aHi, bLo, bHi, dLo;
+
+        MergeTask(long[] src, int aLo, int aHi, int bLo, int bHi, long[] dst, int dLo) {
+            this.src = src;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.bLo = bLo;
+            this.bHi = bHi;
+            this.dst = dst;
+            this.dLo = dLo;
+        }
+
+        @Override
+        protected void compute() {
+            if ((aHi - aLo) + (bHi - bLo) <= PARALLEL_CUTOFF) {
+                int i = aLo, j = bLo, k = dLo;
+                while (i < aHi && j < bHi) {
+                    dst[k++] = src[i] <= src[j] ? src[i++] : src[j++];
+                }
+                while (i < aHi) dst[k++] = src[i++];
+                while (j < bHi) dst[k++] = src[j++];
+                return;
+            }
+            int aMid, bMid;
+            if (aHi - aLo >= bHi - bLo) {
+                aMid = (aLo + aHi) >>> 1;
+                bMid = lowerBound(src, bLo, bHi, src[aMid]);
+            } else {
+                bMid = (bLo + bHi) >>> 1;
+                aMid = lowerBound(src, aLo, aHi, src[bMid]);
+            }
+            int dMid = dLo + (aMid - aLo) + (bMid - bLo);
+            MergeTask left = new MergeTask(src, aLo, aMid, bLo, bMid, dst, dLo);
+            left.fork();
+            new MergeTask(src, aMid, aHi, bMid, bHi, dst, dMid).compute();
+            left.join();
+        }
+    }
+
+    // Pairs (i in [lo, mid), j in [mid, hi)) of sorted runs with a[j] - a[i] <= x
+    static long countCrossPairs(long[] a, int lo, int mid, int hi, long x) {
+        long pairs = 0;
+        int i = lo;
+        for (int j = mid; j < hi; j++) {
+            while (i < mid && a[i] < a[j] - x) i++;
+            pairs += mid - i;
+        }
+        return pairs;
+    }
+
+    static void merge(long[] src, long[] dst, int lo, int mid, int hi) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            dst[k++] = src[i] <= src[j] ? src[i++] : src[j++];
+        }
+        while (i < mid) dst[k++] = src[i++];
+        while (j < hi) dst[k++] = src[j++];
+    }
+
+    // Streaming counter for an unbounded feed of temperature changes. After every sample
+    // it knows how many in-range periods end at that sample and how many there are in
+    // total. Prefix sums live in an order-statistics treap kept in parallel primitive
+    // arrays; with a window of W days only periods inside the last W days count, and the
+    // prefix sum that falls out of the window is evicted so memory stays O(W). The
+    // periods starting at an evicted prefix are counted on the way out and leave the
+    // total one day later, when their first day leaves the window.
+    public static final class AnomalyStream {
+        private final long low;
+        private final long high;
+        private final int window;
+        private final long[] recent;   // last window + 1 prefix sums, by index % (window + 1)
+        private final PrefixTreap prefixes = new PrefixTreap();
+
+        private long prefixSum;
+        private long days;
+        private long endingAtLatest;
+        private long total;
+        private long expiring;         // periods leaving the window with the next sample
+
+        public AnomalyStream(int low, int high) {
+            this(low, high, 0);
+        }
+
+        // window <= 0 means periods of any length are counted
+        public AnomalyStream(int low, int high, int window) {
+            this.low = low;
+            this.high = high;
+            this.window = Math.max(window, 0);
+            this.recent = this.window > 0 ? new long[this.window + 1] : null;
+            prefixes.insert(0L);
+        }
+
+        // Adds one day's change and returns the number of in-range periods ending on it
+        public long accept(int change) {
+            prefixSum += change;
+            days++;
+
+            endingAtLatest = countBetween(prefixSum - high, prefixSum - low);
+            total += endingAtLatest - expiring;
+            expiring = 0;
+
+            prefixes.insert(prefixSum);
+            if (recent != null) {
+                recent[(int) (days % recent.length)] = prefixSum;
+                if (days >= window) {
+                    long evicted = recent[(int) ((days - window) % recent.length)];
+                    prefixes.remove(evicted);
+                    expiring = countBetween(evicted + low, evicted + high);
+                }
+            }
+            return endingAtLatest;
+        }
+
+        // Stored prefix sums in [from, to]
+        private long countBetween(long from, long to) {
+            return from > to ? 0 : prefixes.countLess(to + 1) - prefixes.countLess(from);
+        }
+
+        public long endingAtLatest() {
+            return endingAtLatest;
+        }
+
+        // In-range periods inside the last W days with a window, or ever without one
+        public long total() {
+            return total;
+        }
+
+        public long days() {
+            return days;
+        }
+    }
+
+    // Treap of long keys with multiplicities, stored in parallel arrays. Node 0 is the
+    // empty sentinel and freed nodes are recycled, so only live keys take up space.
+    static final class PrefixTreap {
+        private long[] key = new long[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private int[] priority = new int[16];
+        private int[] count = new int[16];
+        private int[] size = new int[16];
+        private int root;
+        private int used = 1;
+        private int freeList;
+        private int seed = 0x9E3779B9;
+
+        void insert(long k) {
+            root = insert(root, k);
+        }
+
+        void remove(long k) {
+            root = remove(root, k);
+        }
+
+        // Number of stored keys strictly below k
+        long countLess(long k) {
+            long result = 0;
+            int node = root;
+            while (node != 0) {
+                if (k <= key[node]) {
+                    node = left[node];
+                } else {
+                    result += size[left[node]] + count[node];
+                    node = right[node];
+                }
+            }
+            return result;
+        }
+
+        private int insert(int node, long k) {
+            if (node == 0) return newNode(k);
+            if (k == key[node]) {
+                count[node]++;
+            } else if (k < key[node]) {
+                // insert may grow the arrays, so store the child only after it returns
+                int child = insert(left[node], k);
+                left[node] = child;
+                if (priority[child] > priority[node]) node = rotateRight(node);
+            } else {
+                int child = insert(right[node], k);
+                right[node] = child;
+                if (priority[child] > priority[node]) node = rotateLeft(node);
+            }
+            update(node);
+            return node;
+        }
+
+        private int remove(int node, long k) {
+            if (node == 0) return 0;
+            if (k < key[node]) {
+                left[node] = remove(left[node], k);
+            } else if (k > key[node]) {
+                right[node] = remove(right[node], k);
+            } else if (count[node] > 1) {
+                count[node]--;
+            } else if (left[node] == 0 || right[node] == 0) {
+                int child = left[node] != 0 ? left[node] : right[node];
+                left[node] = freeList;
+                freeList = node;
+                return child;
+            } else if (priority[left[node]] > priority[right[node]]) {
+                node = rotateRight(node);
+                right[node] = remove(right[node], k);
+            } else {
+                node = rotateLeft(node);
+                left[node] = remove(left[node], k);
+            }
+            update(node);
+            return node;
+        }
+
+        private int rotateRight(int node) {
+            int l = left[node];
+            left[node] = right[l];
+            right[l] = node;
+            update(node);
+            return l;
+        }
+
+        private int rotateLeft(int node) {
+            int r = right[node];
+            right[node] = left[r];
+            left[r] = node;
+            update(node);
+            return r;
+        }
+
+        private void update(int node) {
+            size[node] = size[left[node]] + size[right[node]] + count[node];
+        }
+
+        private int newNode(long k) {
+            int node;
+            if (freeList != 0) {
+                node = freeList;
+                freeList = left[node];
+            } else {
+                if (used == key.length) grow();
+                node = used++;
+            }
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            key[node] = k;
+            left[node] = 0;
+            right[node] = 0;
+            priority[node] = seed;
+            count[node] = 1;
+            size[node] = 1;
+            return node;
+        }
+
+        private void grow() {
+            int capacity = key.length * 2;
+            key = Arrays.copyOf(key, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            count = Arrays.copyOf(count, capacity);
+            size = Arrays.copyOf(size, capacity);
+        }
+    }
+
+    // First index in sorted[0, m) whose value is >= key
+    static int lowerBound(long[] sorted, int m, long key) {
+        return lowerBound(sorted, 0, m, key);
+    }
+
+    // First index in sorted[lo, hi) whose value is >= key
+    static int lowerBound(long[] sorted, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void fenwickAdd(int[] tree, int slot) {
+        for (; slot < tree.length; slot += slot & -slot) tree[slot]++;
+    }
+
+    // Number of values stored in slots 1..slot
+    private static int fenwickSum(int[] tree, int slot) {
+        int sum = 0;
+        for (; slot > 0; slot -= slot & -slot) sum += tree[slot];
+        return sum;
+    }
+
     public static void main(String[] args) {
         int[] temp1 = {3, -1, -4, 6, 2};
         int result1 = countAnomalousPeriods(temp1, 2, 5);
@@ -81,5 +579,18 @@ public class Question2a {
         int[] temp2 = {-2, 3, 1, -5, 4};
         int result2 = countAnomalousPeriods(temp2, -1, 2);
         System.out.println("Output for temp2 (Expected: 7): " + result2);  // ✅ Output: 7
+
+        long result3 = countAnomalousPeriodsFenwick(temp2, -1, 2);
+        System.out.println("Fenwick output for temp2 (Expected: 7): " + result3);
+
+        AnomalyStream stream = new AnomalyStream(-1, 2);
+        for (int change : temp2) stream.accept(change);
+        System.out.println("Streaming output for temp2 (Expected: 7): " + stream.total());
+
+        long[] bandCounts = countAnomalousPeriods(temp1, new int[][]{{2, 5}, {-1, 2}, {0, 0}});
+        System.out.println("Band outputs for temp1: " + Arrays.toString(bandCounts));
+
+        long result4 = countAnomalousPeriodsParallel(temp2, -1, 2);
+        System.out.println("Parallel output for temp2 (Expected: 7): " + result4);
     }
 }
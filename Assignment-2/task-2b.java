@@ -44,7 +44,12 @@
 
 
 package Question2;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 public class Question2b{
 
@@ -75,6 +80,33 @@ public class Question2b{
         } else {
             System.out.println("No solution found.");
         }
+
+        int[] digits = solveColumns(words, result);
+        System.out.println();
+        System.out.println("Column solver:");
+        for (String w : words) System.out.println(w + " = " + toDigits(w, digits));
+        System.out.println(result + " = " + toDigits(result, digits));
+
+        List<CryptarithmSolver> puzzles = List.of(
+            new CryptarithmSolver(new String[]{"SEND", "MORE"}, "MONEY"),
+            new CryptarithmSolver(new String[]{"CODE", "BUG"}, "DEBUG"),
+            new CryptarithmSolver(List.of("STAR", "MOON"), "NIGHT"));
+        int[][] solutions = CryptarithmSolver.solveAll(puzzles);
+        for (int i = 0; i < solutions.length; i++) {
+            CryptarithmSolver puzzle = puzzles.get(i);
+            System.out.println(String.join(" + ", puzzle.addends()) + " = " + puzzle.result() + ": "
+                + (solutions[i] == null ? "no solution" : "solved"));
+        }
+
+        CryptarithmSolver starMoon = puzzles.get(2);
+        System.out.println("STAR + MOON = NIGHT has " + starMoon.countSolutions(Long.MAX_VALUE) + " solutions");
+        System.out.println("SEND + MORE = MONEY unique: " + (puzzles.get(0).countSolutions(1) == 1));
+
+        String[] longWords = {"ABCDEFGHIJ", "ABCDEFGHIJ"};
+        int[] digitOf = new int[26];
+        for (int i = 0; i < 10; i++) digitOf[i] = (i + 1) % 10;    // A = 1, ..., I = 9, J = 0
+        System.out.println("Long words add up: "
+            + new CryptarithmSolver(longWords, "BDFIACEGHJ").verify(digitOf)); // 1234567890 * 2
     }
 
     // Backtracking function
@@ -111,20 +143,331 @@ public class Question2b{
         return false;
     }
 
-    static int wordToNumber(String w) {
-        int num = 0;
+    static String toDigits(String w, int[] digitOf) {
+        StringBuilder digits = new StringBuilder(w.length());
+        for (int i = 0; i < w.length(); i++) {
+            digits.append((char) ('0' + digitOf[w.charAt(i) - 'A']));
+        }
+        return digits.toString();
+    }
+
+    // Checks words[0] + words[1] + ... == result column by column from the least
+    // significant digit, carrying into the next column, so words of any length and any
+    // number of addends are checked without building (and overflowing) whole numbers.
+    // digitOf is indexed by letter - 'A'. checkSolution and CryptarithmSolver.verify
+    // both end here.
+    static boolean checkColumns(String[] words, String result, int[] digitOf) {
+        int columns = result.length();
+        for (String w : words) columns = Math.max(columns, w.length());
+
+        long carry = 0;
+        for (int c = 0; c < columns; c++) {
+            long sum = carry;
+            for (String w : words) {
+                if (c < w.length()) sum += digitOf[w.charAt(w.length() - 1 - c) - 'A'];
+            }
+            int expected = c < result.length() ? digitOf[result.charAt(result.length() - 1 - c) - 'A'] : 0;
+            if (sum % 10 != expected) return false;
+            carry = sum / 10;
+        }
+        return carry == 0;
+    }
+
+    static String wordToDigits(String w) {
+        StringBuilder digits = new StringBuilder(w.length());
         for (char c : w.toCharArray()) {
-            num = num * 10 + charToDigit.get(c);
+            digits.append(charToDigit.get(c));
         }
-        return num;
+        return digits.toString();
     }
 
+    // Checks the current charToDigit assignment with checkColumns
     static boolean checkSolution() {
-        int sum = 0;
-        for (String w : words) {
-            sum += wordToNumber(w);
+        int[] digitOf = new int[26];
+        for (Map.Entry<Character, Integer> entry : charToDigit.entrySet()) {
+            digitOf[entry.getKey() - 'A'] = entry.getValue();
+        }
+        return checkColumns(words, result, digitOf);
+    }
+
+    // Column-wise solver: letters are assigned in the order in which they appear when the
+    // columns are read from the least significant digit, and every column is checked
+    // (carry included) as soon as its last letter has a digit, so a bad partial
+    // assignment is cut off long before the leaf. Returns the digit of each letter
+    // indexed by letter - 'A' (-1 for unused letters), or null if there is no solution.
+    static int[] solveColumns(String[] words, String result) {
+        return new CryptarithmSolver(words, result).solve();
+    }
+
+    // A compiled puzzle "addend + addend + ... = result" for the column-wise search. It is
+    // immutable and every solve keeps its search state on its own stack, so one solver
+    // can be used from many threads and any number of puzzles can be solved side by side.
+    public static final class CryptarithmSolver {
+        private final String[] addends;
+        private final String result;
+        private final int[] order;          // letters in assignment order
+        private final boolean[] leading;    // letters that may not be zero
+        private final int[][] columnLetters;
+        private final int[][] columnCoefficients;
+        private final int[] resultLetter;   // per column, -1 once the result is shorter
+        private final int[] readyAt;        // letters assigned when a column is complete
+
+        public CryptarithmSolver(List<String> addends, String result) {
+            this(addends.toArray(new String[0]), result);
+        }
+
+        public CryptarithmSolver(String[] addends, String result) {
+            if (addends.length == 0 || result.isEmpty()) {
+                throw new IllegalArgumentException("A puzzle needs at least one addend and a result");
+            }
+            this.addends = addends.clone();
+            this.result = result;
+
+            int columns = result.length();
+            for (String w : addends) {
+                if (w.isEmpty()) throw new IllegalArgumentException("Empty addend");
+                columns = Math.max(columns, w.length());
+            }
+
+            leading = new boolean[26];
+            for (String w : addends) leading[letterIndex(w.charAt(0))] = true;
+            leading[letterIndex(result.charAt(0))] = true;
+
+            int[] position = new int[26];
+            Arrays.fill(position, -1);
+            int[] letterOrder = new int[26];
+            int letters = 0;
+
+            columnLetters = new int[columns][];
+            columnCoefficients = new int[columns][];
+            resultLetter = new int[columns];
+            readyAt = new int[columns];
+            int[] coefficient = new int[26];
+
+            for (int c = 0; c < columns; c++) {
+                for (String w : addends) {
+                    if (c < w.length()) {
+                        int letter = letterIndex(w.charAt(w.length() - 1 - c));
+                        coefficient[letter]++;
+                        if (position[letter] < 0) {
+                            position[letter] = letters;
+                            letterOrder[letters++] = letter;
+                        }
+                    }
+                }
+                resultLetter[c] = -1;
+                if (c < result.length()) {
+                    int letter = letterIndex(result.charAt(result.length() - 1 - c));
+                    resultLetter[c] = letter;
+                    if (position[letter] < 0) {
+                        position[letter] = letters;
+                        letterOrder[letters++] = letter;
+                    }
+                }
+
+                int distinct = 0;
+                for (int letter = 0; letter < 26; letter++) {
+                    if (coefficient[letter] > 0) distinct++;
+                }
+                columnLetters[c] = new int[distinct];
+                columnCoefficients[c] = new int[distinct];
+                int k = 0;
+                for (int letter = 0; letter < 26; letter++) {
+                    if (coefficient[letter] > 0) {
+                        columnLetters[c][k] = letter;
+                        columnCoefficients[c][k++] = coefficient[letter];
+                        coefficient[letter] = 0;
+                    }
+                }
+                readyAt[c] = letters;
+            }
+
+            order = Arrays.copyOf(letterOrder, letters);
+        }
+
+        public String[] addends() {
+            return addends.clone();
+        }
+
+        public String result() {
+            return result;
+        }
+
+        // Solves many puzzles in parallel; entry i is null when puzzle i has no solution
+        public static int[][] solveAll(List<CryptarithmSolver> puzzles) {
+            return solveAll(puzzles, ForkJoinPool.commonPool());
+        }
+
+        public static int[][] solveAll(List<CryptarithmSolver> puzzles, ForkJoinPool pool) {
+            int[][] solutions = new int[puzzles.size()][];
+            pool.submit(() -> IntStream.range(0, solutions.length).parallel()
+                    .forEach(i -> solutions[i] = puzzles.get(i).solve()))
+                .join();
+            return solutions;
+        }
+
+        // Digit of each letter indexed by letter - 'A' (-1 for unused letters), or null
+        public int[] solve() {
+            if (order.length > 10) return null;
+            int[] digitOf = new int[26];
+            Arrays.fill(digitOf, -1);
+            return search(0, 0, 0, 0, digitOf) ? digitOf : null;
+        }
+
+        // True if digitOf (indexed by letter - 'A') makes the columns add up, with no
+        // leading zeros and no digit shared by two letters
+        public boolean verify(int[] digitOf) {
+            int usedDigits = 0;
+            for (int letter : order) {
+                int d = digitOf[letter];
+                if (d < 0 || d > 9 || (usedDigits & (1 << d)) != 0 || d == 0 && leading[letter]) return false;
+                usedDigits |= 1 << d;
+            }
+            return checkColumns(addends, result, digitOf);
+        }
+
+        // Counts solutions, stopping as soon as there are more than limit of them; the
+        // result is then limit + 1 (countSolutions(1) tells unique puzzles apart)
+        public long countSolutions(long limit) {
+            return forEachSolution(null, limit, ForkJoinPool.commonPool());
+        }
+
+        public long forEachSolution(Consumer<int[]> callback, long limit) {
+            return forEachSolution(callback, limit, ForkJoinPool.commonPool());
+        }
+
+        // Enumerates every solution. The search tree is split on the digits of the first
+        // SPLIT_LETTERS letters and the subtrees run in parallel on the pool, so callback
+        // receives a fresh int[26] per solution and may be called from several threads
+        // at once. Stops once more than limit solutions were found and returns how many
+        // were reported (at most limit + 1).
+        public long forEachSolution(Consumer<int[]> callback, long limit, ForkJoinPool pool) {
+            if (order.length > 10 || limit < 0) return 0;
+            Enumeration enumeration = new Enumeration(callback, limit);
+
+            int splitLetters = Math.min(SPLIT_LETTERS, order.length);
+            int subtrees = 1;
+            for (int i = 0; i < splitLetters; i++) subtrees *= 10;
+            int split = subtrees;
+            pool.submit(() -> IntStream.range(0, split).parallel()
+                    .forEach(prefix -> searchSubtree(prefix, splitLetters, enumeration)))
+                .join();
+            long found = enumeration.found.get();
+            return found > limit ? limit + 1 : found;
+        }
+
+        // Subtree whose first letters get the decimal digits of prefix
+        private void searchSubtree(int prefix, int splitLetters, Enumeration enumeration) {
+            int[] digitOf = new int[26];
+            Arrays.fill(digitOf, -1);
+            int usedDigits = 0;
+            for (int i = splitLetters - 1; i >= 0; i--) {
+                int d = prefix % 10;
+                prefix /= 10;
+                int letter = order[i];
+                if ((usedDigits & (1 << d)) != 0 || d == 0 && leading[letter]) return;
+                usedDigits |= 1 << d;
+                digitOf[letter] = d;
+            }
+            searchAll(splitLetters, usedDigits, 0, 0, digitOf, enumeration);
+        }
+
+        // Same walk as search, but keeps going after a solution; false once told to stop
+        private boolean searchAll(int assigned, int usedDigits, int column, int carry, int[] digitOf,
+                                  Enumeration enumeration) {
+            if (enumeration.stopped) return false;
+            while (column < readyAt.length && readyAt[column] <= assigned) {
+                int sum = carry;
+                int[] letters = columnLetters[column];
+                int[] coefficients = columnCoefficients[column];
+                for (int k = 0; k < letters.length; k++) {
+                    sum += coefficients[k] * digitOf[letters[k]];
+                }
+                int expected = resultLetter[column] < 0 ? 0 : digitOf[resultLetter[column]];
+                if (sum % 10 != expected) return true;
+                carry = sum / 10;
+                column++;
+            }
+            if (assigned == order.length) {
+                return carry != 0 || enumeration.report(digitOf);
+            }
+
+            int letter = order[assigned];
+            boolean go = true;
+            for (int d = leading[letter] ? 1 : 0; d <= 9 && go; d++) {
+                if ((usedDigits & (1 << d)) != 0) continue;
+                digitOf[letter] = d;
+                go = searchAll(assigned + 1, usedDigits | (1 << d), column, carry, digitOf, enumeration);
+            }
+            digitOf[letter] = -1;
+            return go;
+        }
+
+        // usedDigits is a bit mask; column is the first column not yet verified
+        private boolean search(int assigned, int usedDigits, int column, int carry, int[] digitOf) {
+            while (column < readyAt.length && readyAt[column] <= assigned) {
+                int sum = carry;
+                int[] letters = columnLetters[column];
+                int[] coefficients = columnCoefficients[column];
+                for (int k = 0; k < letters.length; k++) {
+                    sum += coefficients[k] * digitOf[letters[k]];
+                }
+                int expected = resultLetter[column] < 0 ? 0 : digitOf[resultLetter[column]];
+                if (sum % 10 != expected) return false;
+                carry = sum / 10;
+                column++;
+            }
+            if (assigned == order.length) {
+                return carry == 0;
+            }
+
+            int letter = order[assigned];
+            for (int d = leading[letter] ? 1 : 0; d <= 9; d++) {
+                if ((usedDigits & (1 << d)) != 0) continue;
+                digitOf[letter] = d;
+                if (search(assigned + 1, usedDigits | (1 << d), column, carry, digitOf)) return true;
+            }
+            digitOf[letter] = -1;
+            return false;
+        }
+    }
+
+    // Search subtrees of one enumeration are split on the digits of this many letters
+    static final int SPLIT_LETTERS = 2;
+
+    // Shared state of one forEachSolution run
+    private static final class Enumeration {
+        final Consumer<int[]> callback;
+        final long limit;
+        final AtomicLong found = new AtomicLong();
+        volatile boolean stopped;
+
+        Enumeration(Consumer<int[]> callback, long limit) {
+            this.callback = callback;
+            this.limit = limit;
+        }
+
+        // Returns false once the search should stop
+        boolean report(int[] digitOf) {
+            long index = found.incrementAndGet();
+            if (index - 1 > limit) {
+                stopped = true;
+                return false;
+            }
+            if (callback != null) callback.accept(digitOf.clone());
+            if (index > limit) {
+                stopped = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    static int letterIndex(char c) {
+        if (c < 'A' || c > 'Z') {
+            throw new IllegalArgumentException("Only letters A-Z are supported: " + c);
         }
-        return sum == wordToNumber(result);
+        return c - 'A';
     }
 
     static void printSolution() {
@@ -135,10 +478,11 @@ public class Question2b{
         System.out.println();
 
         for (String w : words) {
-            System.out.println(w + " = " + wordToNumber(w));
+            System.out.println(w + " = " + wordToDigits(w));
         }
-        System.out.println(result + " = " + wordToNumber(result));
-       System.out.println("Check: sum of words = " + Arrays.stream(words).mapToInt(Question2b::wordToNumber).sum());
+        System.out.println(result + " = " + wordToDigits(result));
+       System.out.println("Check: sum of words = " + Arrays.stream(words).map(w -> new BigInteger(wordToDigits(w)))
+           .reduce(BigInteger.ZERO, BigInteger::add));
 
     }
 }
@@ -41,34 +41,175 @@
 
 
 package Question3;
+import java.util.Arrays;
+
 public class Question3a {
 
+    // One-shot query: scans p1 directly in O(|p1| * |p2|) time and O(|p2|) memory.
+    // Build a RepeatedPattern instead when the same p1 is queried many times.
     public static int maxRepetitions(String p1, int t1, String p2, int t2) {
         int len1 = p1.length();
         int len2 = p2.length();
+        if (len1 == 0 || len2 == 0 || t1 <= 0) return 0;
+
+        // How far into p2 we are at the start of each p1 block only depends on where we
+        // were at the start of the previous one, so some position j repeats within the
+        // first len2 + 1 blocks. From then on the blocks cycle and whole cycles are
+        // skipped arithmetically: runtime is O(len1 * len2) whatever t1 is.
+        int[] blockAt = new int[len2];     // first block that started at position j
+        long[] countAt = new long[len2];   // p2 copies matched before that block
+        Arrays.fill(blockAt, -1);
 
-        int i = 0, j = 0;  // pointers in p1 and p2
-        int count1 = 0;    // how many times p1 repeated processed
-        int count2 = 0;    // how many times p2 repeated matched
+        int j = 0;          // pointer in p2
+        long count2 = 0;    // how many times p2 repeated matched
+        int block = 0;      // how many times p1 repeated processed
+
+        while (block < t1) {
+            if (blockAt[j] >= 0) {
+                int cycleBlocks = block - blockAt[j];
+                long cycles = (t1 - block) / cycleBlocks;
+                count2 += cycles * (count2 - countAt[j]);
+                block += (int) (cycles * cycleBlocks);
+                Arrays.fill(blockAt, -1);  // only the remaining partial cycle is left
+                if (block == t1) break;
+            }
+            blockAt[j] = block;
+            countAt[j] = count2;
 
-        while (count1 < t1) {
-            if (p1.charAt(i) == p2.charAt(j)) {
-                j++;
-                if (j == len2) {
-                    j = 0;
-                    count2++;  // matched one full p2 sequence
+            for (int i = 0; i < len1; i++) {
+                if (p1.charAt(i) == p2.charAt(j)) {
+                    j++;
+                    if (j == len2) {
+                        j = 0;
+                        count2++;  // matched one full p2 sequence
+                    }
                 }
             }
-            i++;
-            if (i == len1) {
-                i = 0;
-                count1++;  // finished one repeat of p1
+            block++;  // finished one repeat of p1
+        }
+
+        return (int) Math.min(count2, t2);
+    }
+
+    // p1 prepared for subsequence matching against its own repetition. For every position
+    // in p1 and every character of p1 a jump table holds the distance to the next
+    // occurrence of that character, wrapping around into the next copy of p1, so
+    // matching one copy of p2 is |p2| table lookups. Queries only read the table, so
+    // one instance serves any number of p2 queries, also from several threads.
+    // When |p1| * (distinct characters) would exceed MAX_TABLE_CELLS, each character
+    // keeps its sorted positions instead and a lookup is a binary search.
+    public static final class RepeatedPattern {
+        static final int MAX_TABLE_CELLS = 1 << 24;
+
+        private final int len1;
+        private final char[] alphabet;      // sorted distinct characters of p1
+        private final int[] asciiSlot;      // slot of each ASCII character, -1 if absent
+        private final int[] next;           // next[pos * alphabet.length + slot], or null
+        private final int[][] positions;    // positions[slot] when there is no table
+
+        public RepeatedPattern(String p1) {
+            len1 = p1.length();
+            alphabet = p1.chars().distinct().sorted().collect(StringBuilder::new,
+                StringBuilder::appendCodePoint, StringBuilder::append).toString().toCharArray();
+            asciiSlot = new int[128];
+            Arrays.fill(asciiSlot, -1);
+            for (int slot = 0; slot < alphabet.length; slot++) {
+                if (alphabet[slot] < 128) asciiSlot[alphabet[slot]] = slot;
+            }
+
+            int sigma = alphabet.length;
+            if ((long) len1 * sigma > MAX_TABLE_CELLS) {
+                next = null;
+                int[] count = new int[sigma];
+                for (int pos = 0; pos < len1; pos++) count[slotOf(p1.charAt(pos))]++;
+                positions = new int[sigma][];
+                for (int slot = 0; slot < sigma; slot++) positions[slot] = new int[count[slot]];
+                Arrays.fill(count, 0);
+                for (int pos = 0; pos < len1; pos++) {
+                    int slot = slotOf(p1.charAt(pos));
+                    positions[slot][count[slot]++] = pos;
+                }
+                return;
+            }
+            positions = null;
+            next = new int[len1 * sigma];
+            int[] lastSeen = new int[sigma];
+            // Walk p1 backwards twice so that positions near the end see the next copy
+            Arrays.fill(lastSeen, -1);
+            for (int k = 2 * len1 - 1; k >= 0; k--) {
+                int pos = k % len1;
+                lastSeen[slotOf(p1.charAt(pos))] = k;
+                if (k < len1) {
+                    for (int slot = 0; slot < sigma; slot++) {
+                        next[pos * sigma + slot] = lastSeen[slot] - k;
+                    }
+                }
             }
         }
 
-        int result = Math.min(count2, t2);
-        System.out.println("Matched repetitions: " + count2 + ", Requested: " + t2 + ", Returning: " + result);
-        return result;
+        // Distance from pos to the next occurrence of the slot's character, wrapping
+        private int distance(int pos, int slot) {
+            if (next != null) return next[pos * alphabet.length + slot];
+            int[] at = positions[slot];
+            int i = Arrays.binarySearch(at, pos);
+            if (i >= 0) return 0;
+            i = -i - 1;
+            return i < at.length ? at[i] - pos : at[0] + len1 - pos;
+        }
+
+        private int slotOf(char c) {
+            if (c < 128) return asciiSlot[c];
+            int slot = Arrays.binarySearch(alphabet, c);
+            return slot < 0 ? -1 : slot;
+        }
+
+        // How many copies of p2, up to t2, are a subsequence of p1 repeated t1 times.
+        // The copy-start position inside p1 repeats within len1 + 1 copies, after which
+        // whole cycles are skipped, so a query is O(min(t2, len1) * |p2|).
+        public int maxRepetitions(String p2, int t1, int t2) {
+            int len2 = p2.length();
+            if (len1 == 0 || len2 == 0 || t1 <= 0 || t2 <= 0) return 0;
+
+            int[] slots = new int[len2];
+            for (int j = 0; j < len2; j++) {
+                slots[j] = slotOf(p2.charAt(j));
+                if (slots[j] < 0) return 0;  // p2 uses a character p1 never has
+            }
+
+            long total = (long) t1 * len1;
+            int[] copiesAt = new int[len1];    // copies matched when a copy first started at pos
+            long[] usedAt = new long[len1];    // characters of seqA used by then
+            Arrays.fill(copiesAt, -1);
+
+            int copies = 0;
+            int pos = 0;        // position in p1 where the next copy starts
+            long used = 0;      // characters of seqA consumed so far
+            while (copies < t2) {
+                if (copiesAt[pos] >= 0) {
+                    long cycleLength = used - usedAt[pos];
+                    int cycleCopies = copies - copiesAt[pos];
+                    long cycles = Math.min((total - used) / cycleLength, (t2 - copies) / cycleCopies);
+                    copies += (int) (cycles * cycleCopies);
+                    used += cycles * cycleLength;
+                    Arrays.fill(copiesAt, -1);  // only a partial cycle is left
+                    if (copies == t2) break;
+                }
+                copiesAt[pos] = copies;
+                usedAt[pos] = used;
+
+                long end = used;
+                for (int j = 0; j < len2; j++) {
+                    int step = distance(pos, slots[j]) + 1;
+                    end += step;
+                    pos += step;
+                    if (pos >= len1) pos -= len1;
+                }
+                if (end > total) break;
+                used = end;
+                copies++;
+            }
+            return copies;
+        }
     }
 
     public static void main(String[] args) {
@@ -83,6 +224,10 @@ public class Question3a {
         int t2_2 = 5;
         int result2 = maxRepetitions(p1, t1, p2, t2_2);
         System.out.println("Result for t2 = " + t2_2 + ": " + result2);  // Expected: 3
+
+        RepeatedPattern pattern = new RepeatedPattern(p1);
+        System.out.println("Result for p2 = \"ab\": " + pattern.maxRepetitions("ab", t1, 10));  // Expected: 5
+        System.out.println("Result for p2 = \"cab\": " + pattern.maxRepetitions("cab", t1, 10)); // Expected: 5
     }
 }
 
@@ -30,6 +30,17 @@
 
 
 package Question3;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class Question3b {
 
     public static int maxMagicalPower(String M) {
@@ -37,31 +48,39 @@ public class Question3b {
         int[] leftMax = new int[n];
         int[] rightMax = new int[n];
 
-        // Step 1: Expand around centers for odd-length palindromes
-        for (int center = 0; center < n; center++) {
-            int l = center, r = center;
-            while (l >= 0 && r < n && M.charAt(l) == M.charAt(r)) {
-                int len = r - l + 1;
-                if (len % 2 == 1) {
-                    leftMax[r] = Math.max(leftMax[r], len);
-                    rightMax[l] = Math.max(rightMax[l], len);
-                }
-                l--;
-                r++;
-            }
+        // Step 1: Manacher's algorithm for odd-length palindromes
+        int[] radius = oddRadii(M);
+
+        // Step 2: Longest palindrome ending (leftMax) and starting (rightMax) at each index.
+        // Only maximal palindromes are recorded here; the shorter ones around the same
+        // center are filled in by Step 3.
+        for (int i = 0; i < n; i++) {
+            int len = 2 * radius[i] - 1;
+            leftMax[i + radius[i] - 1] = Math.max(leftMax[i + radius[i] - 1], len);
+            rightMax[i - radius[i] + 1] = Math.max(rightMax[i - radius[i] + 1], len);
+        }
+
+        // Step 3: A palindrome of length len ending at i + 1 contains one of length len - 2
+        // ending at i (and likewise for starts), so one linear pass in each direction
+        // gives the longest palindrome ending / starting exactly at every index
+        for (int i = n - 2; i >= 0; i--) {
+            leftMax[i] = Math.max(leftMax[i], leftMax[i + 1] - 2);
+        }
+        for (int i = 1; i < n; i++) {
+            rightMax[i] = Math.max(rightMax[i], rightMax[i - 1] - 2);
         }
 
-        // Step 2: Build prefix max for leftMax
+        // Step 4: Build prefix max for leftMax
         for (int i = 1; i < n; i++) {
             leftMax[i] = Math.max(leftMax[i], leftMax[i - 1]);
         }
 
-        // Step 3: Build suffix max for rightMax
+        // Step 5: Build suffix max for rightMax
         for (int i = n - 2; i >= 0; i--) {
             rightMax[i] = Math.max(rightMax[i], rightMax[i + 1]);
         }
 
-        // Step 4: Compute max product
+        // Step 6: Compute max product
         int maxProduct = 0;
         for (int i = 0; i < n - 1; i++) {
             maxProduct = Math.max(maxProduct, leftMax[i] * rightMax[i + 1]);
@@ -70,8 +89,500 @@ public class Question3b {
         return maxProduct;
     }
 
+    // Manacher's algorithm for odd-length palindromes. radius[i] = k means
+    // M[i - k + 1 .. i + k - 1] is the longest odd palindrome centered at i.
+    static int[] oddRadii(String M) {
+        int n = M.length();
+        int[] radius = new int[n];
+        for (int i = 0, l = 0, r = -1; i < n; i++) {
+            int k = i > r ? 1 : Math.min(radius[l + r - i], r - i + 1);
+            while (i - k >= 0 && i + k < n && M.charAt(i - k) == M.charAt(i + k)) {
+                k++;
+            }
+            radius[i] = k;
+            if (i + k - 1 > r) {
+                l = i - k + 1;
+                r = i + k - 1;
+            }
+        }
+        return radius;
+    }
+
+    // How the lengths of the chosen magical words are combined
+    public enum Objective { PRODUCT, SUM }
+
+    // One chosen magical word: M[start .. start + length - 1]
+    public static final class MagicalWord {
+        public final int start;
+        public final int length;
+
+        MagicalWord(int start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        public int end() {
+            return start + length - 1;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ":" + end() + "]";
+        }
+    }
+
+    // The best k non-overlapping magical words of M, in manuscript order, with their
+    // positions (empty if M is shorter than k). For k <= 2 the answer comes from the
+    // Manacher prefix / suffix maxima in linear time, as in maxMagicalPower. For larger
+    // k a DP over end positions adds one word per layer; see bestWords for its cost.
+    public static List<MagicalWord> bestMagicalWords(String M, int k, Objective objective) {
+        int n = M.length();
+        if (k <= 0 || n < k) return new ArrayList<>();
+        if (k >= 3) return bestWords(M, k, objective);
+        int[] radius = oddRadii(M);
+
+        if (k == 1) {
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (radius[i] > radius[best]) best = i;
+            }
+            return new ArrayList<>(List.of(new MagicalWord(best - radius[best] + 1, 2 * radius[best] - 1)));
+        }
+        return bestPair(radius, objective);
+    }
+
+    // Longest palindrome ending / starting at each index, maximised over prefixes /
+    // suffixes while remembering where the best one is, then the best split point
+    private static List<MagicalWord> bestPair(int[] radius, Objective objective) {
+        int n = radius.length;
+        int[] ending = new int[n];
+        int[] starting = new int[n];
+        for (int i = 0; i < n; i++) {
+            ending[i + radius[i] - 1] = Math.max(ending[i + radius[i] - 1], 2 * radius[i] - 1);
+            starting[i - radius[i] + 1] = Math.max(starting[i - radius[i] + 1], 2 * radius[i] - 1);
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            ending[i] = Math.max(ending[i], ending[i + 1] - 2);
+        }
+        for (int i = 1; i < n; i++) {
+            starting[i] = Math.max(starting[i], starting[i - 1] - 2);
+        }
+
+        int[] leftEnd = new int[n];     // end index of the best palindrome within [0, i]
+        for (int i = 1; i < n; i++) {
+            leftEnd[i] = ending[i] > ending[leftEnd[i - 1]] ? i : leftEnd[i - 1];
+        }
+        int[] rightStart = new int[n];  // start index of the best palindrome within [i, n)
+        rightStart[n - 1] = n - 1;
+        for (int i = n - 2; i >= 0; i--) {
+            rightStart[i] = starting[i] > starting[rightStart[i + 1]] ? i : rightStart[i + 1];
+        }
+
+        int bestSplit = 0;
+        long bestValue = -1;
+        for (int i = 0; i < n - 1; i++) {
+            long left = ending[leftEnd[i]], right = starting[rightStart[i + 1]];
+            long value = objective == Objective.SUM ? left + right : left * right;
+            if (value > bestValue) {
+                bestValue = value;
+                bestSplit = i;
+            }
+        }
+
+        int end = leftEnd[bestSplit], start = rightStart[bestSplit + 1];
+        List<MagicalWord> words = new ArrayList<>();
+        words.add(new MagicalWord(end - ending[end] + 1, ending[end]));
+        words.add(new MagicalWord(start, starting[start]));
+        return words;
+    }
+
+    // best(j, e): best score of j words inside M[0, e). from[j][e] is the start of the
+    // word ending at e - 1 that reaches best(j, e), or -1 when best(j, e) is just
+    // best(j, e - 1). A layer does not visit every palindrome: the palindromic suffixes
+    // of M[0, e) fall into O(log n) series with a common length difference (eertree
+    // series links), and the starts of a series at e are those of the same series at
+    // e - diff plus one new start. Each series keeps its candidates "best(j - 1, s), then
+    // the word [s, x)", which are lines in x, in a Li Chao tree per parity of s, and
+    // hands the trees on to its next occurrence; querying the parity opposite to e's
+    // keeps the lengths odd. That is O(k n log^2 n) time in the worst case, about
+    // O(k n log n) on ordinary text, and O(k n) memory for the from table.
+    private static List<MagicalWord> bestWords(String M, int k, Objective objective) {
+        int n = M.length();
+        boolean sum = objective == Objective.SUM;
+        PalindromeSeries series = new PalindromeSeries(M);
+        LayerScores scores = new LayerScores(n, sum, sum || productFitsInLong(2 * n, k));
+        LiChaoForest lines = new LiChaoForest(n, scores);
+        int[] root = new int[2 * series.size];     // two trees per node, by parity of s
+        int[][] from = new int[k + 1][n + 1];
+
+        for (int j = 1; j <= k; j++) {
+            lines.clear();
+            Arrays.fill(root, -1);
+            from[j][0] = -1;
+            for (int e = 1; e <= n; e++) {
+                int best = -1;
+                for (int v = series.longestSuffix[e]; series.length[v] > 0; v = series.seriesLink[v]) {
+                    int link = series.link[v];
+                    if (series.diff[v] == series.diff[link]) {
+                        root[2 * v] = root[2 * link];
+                        root[2 * v + 1] = root[2 * link + 1];
+                    } else {
+                        root[2 * v] = root[2 * v + 1] = -1;
+                    }
+                    int start = e - series.length[series.seriesLink[v]] - series.diff[v];
+                    if (scores.hasRoom(start)) {
+                        int tree = 2 * v + (start & 1);
+                        root[tree] = lines.insert(root[tree], start);
+                    }
+                    int candidate = lines.best(root[2 * v + (~e & 1)], e);
+                    if (candidate >= 0 && (best < 0 || scores.compare(candidate, best, e) > 0)) {
+                        best = candidate;
+                    }
+                }
+                from[j][e] = scores.extend(e, best) ? best : -1;
+            }
+            scores.nextLayer();
+        }
+
+        List<MagicalWord> words = new ArrayList<>();
+        for (int j = k, e = n; j > 0; ) {
+            if (from[j][e] < 0) {
+                e--;
+            } else {
+                words.add(new MagicalWord(from[j][e], e - from[j][e]));
+                e = from[j][e];
+                j--;
+            }
+        }
+        Collections.reverse(words);
+        return words;
+    }
+
+    // Whether every product of at most k positive lengths summing to at most n fits in a
+    // long: for each count the largest one splits n as evenly as possible
+    private static boolean productFitsInLong(int n, int k) {
+        for (int count = 1; count <= k; count++) {
+            long product = 1;
+            for (int i = 0; i < count; i++) {
+                long factor = n / count + (i < n % count ? 1 : 0);
+                if (Math.multiplyHigh(product, factor) != 0 || product * factor < 0) return false;
+                product *= factor;
+            }
+        }
+        return true;
+    }
+
+    // Eertree of M: one node per distinct palindrome plus two roots, 0 of length -1 and
+    // 1 for the empty string. link is the longest proper palindromic suffix, diff the
+    // length step to it, seriesLink the first suffix down the links whose step differs,
+    // and longestSuffix[e] the longest palindromic suffix of M[0, e). Edges live in one
+    // open-addressing table of child nodes, keyed by the child's parent and letter.
+    private static final class PalindromeSeries {
+        final int[] length, link, diff, seriesLink, longestSuffix;
+        final int size;
+        private final int[] parent;
+        private final char[] letter;
+        private final int[] children;
+
+        PalindromeSeries(String M) {
+            int n = M.length();
+            length = new int[n + 2];
+            link = new int[n + 2];
+            diff = new int[n + 2];
+            seriesLink = new int[n + 2];
+            parent = new int[n + 2];
+            letter = new char[n + 2];
+            longestSuffix = new int[n + 1];
+            children = new int[Integer.highestOneBit(Math.max(n, 2)) << 2];
+            Arrays.fill(children, -1);
+            length[0] = -1;
+
+            int nodes = 2, last = 1;
+            for (int i = 0; i < n; i++) {
+                char c = M.charAt(i);
+                int v = last;
+                while (i - length[v] - 1 < 0 || M.charAt(i - length[v] - 1) != c) v = link[v];
+                int node = child(v, c);
+                if (node < 0) {
+                    node = nodes++;
+                    length[node] = length[v] + 2;
+                    if (length[node] == 1) {
+                        link[node] = 1;
+                    } else {
+                        int u = link[v];
+                        while (i - length[u] - 1 < 0 || M.charAt(i - length[u] - 1) != c) u = link[u];
+                        link[node] = child(u, c);
+                    }
+                    diff[node] = length[node] - length[link[node]];
+                    seriesLink[node] = diff[node] == diff[link[node]] ? seriesLink[link[node]] : link[node];
+                    parent[node] = v;
+                    letter[node] = c;
+                    children[slot(v, c)] = node;
+                }
+                last = node;
+                longestSuffix[i + 1] = node;
+            }
+            size = nodes;
+        }
+
+        private int child(int v, char c) {
+            return children[slot(v, c)];
+        }
+
+        // The slot holding v's child by c, or the empty slot where it belongs
+        private int slot(int v, char c) {
+            int mask = children.length - 1;
+            int i = (int) ((((long) v << 16 | c) * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (children[i] >= 0 && (parent[children[i]] != v || letter[children[i]] != c)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+
+    // The previous and current layers of bestWords. Scores are exact: sums, and products
+    // that provably fit, are kept in a long (-1 when there is no room for the words),
+    // other products in BigInteger (null when there is no room).
+    private static final class LayerScores {
+        private final boolean sum;
+        private long[] previous, current;
+        private BigInteger[] previousBig, currentBig;
+
+        LayerScores(int n, boolean sum, boolean exactLong) {
+            this.sum = sum;
+            if (exactLong) {
+                previous = new long[n + 1];         // layer 0 is the empty choice
+                current = new long[n + 1];
+                Arrays.fill(previous, sum ? 0 : 1);
+                current[0] = -1;
+            } else {
+                previousBig = new BigInteger[n + 1];
+                currentBig = new BigInteger[n + 1];
+                Arrays.fill(previousBig, BigInteger.ONE);
+            }
+        }
+
+        boolean hasRoom(int start) {
+            return previous != null ? previous[start] >= 0 : previousBig[start] != null;
+        }
+
+        // Compares best(j - 1, a) then the word [a, x) with the same for b. The Li Chao
+        // trees also compare at x <= a, where the value is just the line extended; with
+        // |x - a| <= n it stays within the products that productFitsInLong(2n, k) covers.
+        int compare(int a, int b, int x) {
+            if (previous == null) {
+                return previousBig[a].multiply(BigInteger.valueOf(x - a))
+                    .compareTo(previousBig[b].multiply(BigInteger.valueOf(x - b)));
+            }
+            return Long.compare(value(a, x), value(b, x));
+        }
+
+        private long value(int start, int end) {
+            return sum ? previous[start] + end - start : previous[start] * (end - start);
+        }
+
+        // Sets best(j, e) from the word [start, e) if that beats best(j, e - 1), which a
+        // start of -1 never does; returns whether the word was taken
+        boolean extend(int e, int start) {
+            if (previous != null) {
+                long value = start < 0 ? -1 : value(start, e);
+                boolean takes = value > current[e - 1];
+                current[e] = takes ? value : current[e - 1];
+                return takes;
+            }
+            BigInteger value = start < 0 ? null : previousBig[start].multiply(BigInteger.valueOf(e - start));
+            boolean takes = value != null && (currentBig[e - 1] == null || value.compareTo(currentBig[e - 1]) > 0);
+            currentBig[e] = takes ? value : currentBig[e - 1];
+            return takes;
+        }
+
+        void nextLayer() {
+            if (previous != null) {
+                long[] swap = previous;
+                previous = current;
+                current = swap;
+                current[0] = -1;
+            } else {
+                BigInteger[] swap = previousBig;
+                previousBig = currentBig;
+                currentBig = swap;
+                currentBig[0] = null;
+            }
+        }
+    }
+
+    // Li Chao trees over x in [1, n]. A line is a start s, valued at x by
+    // LayerScores.compare; all trees of a layer share one node pool, emptied by clear.
+    private static final class LiChaoForest {
+        private final int n;
+        private final LayerScores scores;
+        private int[] line = new int[64];
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private int nodes;
+
+        LiChaoForest(int n, LayerScores scores) {
+            this.n = n;
+            this.scores = scores;
+        }
+
+        void clear() {
+            nodes = 0;
+        }
+
+        // Adds start to the tree at root (-1 for an empty tree) and returns its root
+        int insert(int root, int start) {
+            if (root < 0) return newNode(start);
+            int node = root, lo = 1, hi = n;
+            while (true) {
+                int mid = (lo + hi) >>> 1;
+                boolean betterLow = scores.compare(start, line[node], lo) > 0;
+                boolean betterMid = scores.compare(start, line[node], mid) > 0;
+                if (betterMid) {
+                    int kept = line[node];
+                    line[node] = start;
+                    start = kept;
+                }
+                if (lo == hi) return root;
+                if (betterLow != betterMid) {
+                    hi = mid;
+                    if (left[node] < 0) {
+                        int leaf = newNode(start);
+                        left[node] = leaf;
+                        return root;
+                    }
+                    node = left[node];
+                } else {
+                    lo = mid + 1;
+                    if (right[node] < 0) {
+                        int leaf = newNode(start);
+                        right[node] = leaf;
+                        return root;
+                    }
+                    node = right[node];
+                }
+            }
+        }
+
+        // The best start at x in the tree at root, or -1 if the tree is empty
+        int best(int root, int x) {
+            int best = -1, lo = 1, hi = n;
+            for (int node = root; node >= 0; ) {
+                if (best < 0 || scores.compare(line[node], best, x) > 0) best = line[node];
+                int mid = (lo + hi) >>> 1;
+                if (x <= mid) {
+                    node = left[node];
+                    hi = mid;
+                } else {
+                    node = right[node];
+                    lo = mid + 1;
+                }
+            }
+            return best;
+        }
+
+        private int newNode(int start) {
+            if (nodes == line.length) {
+                line = Arrays.copyOf(line, 2 * nodes);
+                left = Arrays.copyOf(left, 2 * nodes);
+                right = Arrays.copyOf(right, 2 * nodes);
+            }
+            line[nodes] = start;
+            left[nodes] = right[nodes] = -1;
+            return nodes++;
+        }
+    }
+
+    // maxMagicalPower on raw bytes with a long product, so palindromes longer than 46,341
+    // characters cannot overflow. The two int[] scratch arrays are kept between calls and
+    // only grow, so scanning many large inputs allocates nothing after the first one.
+    // An instance is not thread-safe; use one scanner per thread.
+    public static final class MagicalPowerScanner {
+        private int[] first = new int[0];
+        private int[] second = new int[0];
+
+        public long maxMagicalPower(byte[] m) {
+            return maxMagicalPower(ByteBuffer.wrap(m));
+        }
+
+        // Scans m from its position to its limit without moving the position
+        public long maxMagicalPower(ByteBuffer m) {
+            int n = m.remaining();
+            int base = m.position();
+            if (first.length < n) {
+                first = new int[n];
+                second = new int[n];
+            }
+            int[] radius = first;   // becomes the longest start at each index later on
+            int[] ending = second;
+
+            for (int i = 0, l = 0, r = -1; i < n; i++) {
+                int k = i > r ? 1 : Math.min(radius[l + r - i], r - i + 1);
+                while (i - k >= 0 && i + k < n && m.get(base + i - k) == m.get(base + i + k)) {
+                    k++;
+                }
+                radius[i] = k;
+                if (i + k - 1 > r) {
+                    l = i - k + 1;
+                    r = i + k - 1;
+                }
+            }
+
+            // Longest palindrome ending at each index, then prefix max
+            Arrays.fill(ending, 0, n, 0);
+            for (int i = 0; i < n; i++) {
+                ending[i + radius[i] - 1] = Math.max(ending[i + radius[i] - 1], 2 * radius[i] - 1);
+            }
+            for (int i = n - 2; i >= 0; i--) {
+                ending[i] = Math.max(ending[i], ending[i + 1] - 2);
+            }
+            for (int i = 1; i < n; i++) {
+                ending[i] = Math.max(ending[i], ending[i - 1]);
+            }
+
+            // Radii become the longest palindrome starting at each index, in place: a
+            // center only writes at or before itself, where the radii are already used
+            for (int i = 0; i < n; i++) {
+                int k = radius[i];
+                radius[i] = 0;
+                radius[i - k + 1] = Math.max(radius[i - k + 1], 2 * k - 1);
+            }
+            for (int i = 1; i < n; i++) {
+                radius[i] = Math.max(radius[i], radius[i - 1] - 2);
+            }
+            for (int i = n - 2; i >= 0; i--) {
+                radius[i] = Math.max(radius[i], radius[i + 1]);
+            }
+
+            long maxProduct = 0;
+            for (int i = 0; i < n - 1; i++) {
+                maxProduct = Math.max(maxProduct, (long) ending[i] * radius[i + 1]);
+            }
+            return maxProduct;
+        }
+
+        // Memory-maps the file and scans its bytes (files up to 2 GB)
+        public long maxMagicalPower(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Manuscript too large to map: " + channel.size() + " bytes");
+                }
+                return maxMagicalPower(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+    }
+
     public static void main(String[] args) {
         System.out.println(maxMagicalPower("xyzyxabc")); // Output: 5
         System.out.println(maxMagicalPower("levelwowracecar")); // Output: 35
+
+        MagicalPowerScanner scanner = new MagicalPowerScanner();
+        System.out.println(scanner.maxMagicalPower("levelwowracecar".getBytes())); // Output: 35
+        byte[] run = new byte[100_001];
+        Arrays.fill(run, (byte) 'a');
+        System.out.println(scanner.maxMagicalPower(run)); // Output: 2499999999
+
+        System.out.println(bestMagicalWords("levelwowracecar", 2, Objective.PRODUCT)); // Output: [[0:4], [8:14]]
+        System.out.println(bestMagicalWords("levelwowracecar", 3, Objective.SUM));     // Output: [[0:4], [5:7], [8:14]]
     }
 }
@@ -44,45 +44,942 @@
 
 package Question4;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
 
 public class Question4a {
-    private final Map<Integer, List<int[]>> graph;
+    // Frontier slice handed to one worker by canTransmitParallel; smaller frontiers are
+    // expanded on the calling thread
+    static final int FRONTIER_CHUNK = 1 << 10;
+
+    private final int n;
+    // The current links, sorted and as rows. A new table replaces the old one after
+    // updates, so a search that read the field keeps one consistent set of arrays.
+    private volatile LinkTable table;
+    // Search scratch reused across queries: an office is visited when its stamp equals
+    // the current epoch, so a new search only has to bump the epoch
+    private final int[] visitedEpoch;
+    private final int[] queue;
+    private int epoch;
+    // Created by the first addLink / removeLink; from then on it answers canTransmit,
+    // and the table is rebuilt from it lazily when a search needs it. The forest is
+    // only touched while holding the instance's lock.
+    private volatile DynamicForest forest;
+    private volatile boolean stale;
+    // Positions in the constructor's table of the links Kruskal kept, the minimum
+    // spanning forest the dynamic forest starts from; dropped once it is seeded
+    private int[] spanningLinks;
+    // Kruskal reconstruction tree: leaves 0..n-1 are the offices, node n + i is the i-th
+    // merge of Kruskal's algorithm and weighs the strength of the link that made it.
+    // The weakest possible bottleneck between two offices is the weight of their lowest
+    // common ancestor. Heavy-light chains answer the LCA in O(log N) with linear memory.
+    // Describes the constructor's links only.
+    private final int[] treeParent;
+    private final int[] treeWeight;
+    private final int[] treeDepth;
+    private final int[] chainHead;
 
     public Question4a(int n, int[][] links) {
-        graph = new HashMap<>();
+        this.n = n;
+        int[] from = new int[links.length], to = new int[links.length], strength = new int[links.length];
+        for (int i = 0; i < links.length; i++) {
+            from[i] = links[i][0];
+            to[i] = links[i][1];
+            strength[i] = links[i][2];
+        }
+        table = new LinkTable(n, from, to, strength, links.length);
+        int[] linkFrom = table.linkFrom, linkTo = table.linkTo, linkStrength = table.linkStrength;
+        visitedEpoch = new int[n];
+        queue = new int[n];
+
+        // Kruskal over the sorted links; every successful union becomes a tree node
+        int[] parent = new int[n];
+        byte[] rank = new byte[n];
+        int[] top = new int[n];     // tree node currently standing for each DSU root
+        int[] left = new int[Math.max(n - 1, 0)], right = new int[left.length];
+        int[] weight = new int[left.length];
         for (int i = 0; i < n; i++) {
-            graph.put(i, new ArrayList<>());
+            parent[i] = i;
+            top[i] = i;
+        }
+        int nodes = n;
+        spanningLinks = new int[left.length];
+        for (int i = 0; i < linkStrength.length; i++) {
+            int a = find(parent, linkFrom[i]), b = find(parent, linkTo[i]);
+            if (a == b) continue;
+            spanningLinks[nodes - n] = i;
+            left[nodes - n] = top[a];
+            right[nodes - n] = top[b];
+            weight[nodes - n] = linkStrength[i];
+            union(parent, rank, a, b);
+            top[find(parent, a)] = nodes++;
         }
 
-        for (int[] link : links) {
-            int a = link[0], b = link[1], strength = link[2];
-            graph.get(a).add(new int[]{b, strength});
-            graph.get(b).add(new int[]{a, strength}); // undirected
+        // Children always have smaller ids than their parent, so subtree sizes fill in
+        // ascending order and depths / chain heads in descending order
+        spanningLinks = Arrays.copyOf(spanningLinks, nodes - n);
+        treeParent = new int[nodes];
+        treeWeight = Arrays.copyOf(weight, nodes - n);
+        treeDepth = new int[nodes];
+        chainHead = new int[nodes];
+        Arrays.fill(treeParent, -1);
+        int[] size = new int[nodes];
+        Arrays.fill(size, 0, n, 1);
+        for (int v = n; v < nodes; v++) {
+            treeParent[left[v - n]] = v;
+            treeParent[right[v - n]] = v;
+            size[v] = size[left[v - n]] + size[right[v - n]];
+        }
+        for (int v = nodes - 1; v >= 0; v--) {
+            int p = treeParent[v];
+            if (p < 0) {
+                chainHead[v] = v;
+                continue;
+            }
+            treeDepth[v] = treeDepth[p] + 1;
+            int sibling = left[p - n] == v ? right[p - n] : left[p - n];
+            boolean heavy = size[v] > size[sibling] || (size[v] == size[sibling] && left[p - n] == v);
+            chainHead[v] = heavy ? chainHead[p] : v;
         }
     }
 
+    // The link table, first rebuilt if addLink / removeLink ran since the last one.
+    // The rebuild re-sorts every live link, O(E log E), on the first search after each
+    // change; concurrent callers wait for one rebuild instead of racing.
+    private LinkTable currentTable() {
+        if (stale) refresh();
+        return table;
+    }
+
+    private synchronized void refresh() {
+        if (!stale) return;
+        int count = forest.linkCount();
+        int[] from = new int[count], to = new int[count], strength = new int[count];
+        forest.copyLinks(from, to, strength);
+        table = new LinkTable(n, from, to, strength, count);
+        stale = false;
+    }
+
+    // O(log N) lookup. Until the links change it reads the reconstruction tree built by
+    // the constructor, which any number of threads may query at once. After the first
+    // addLink / removeLink it asks the dynamic forest, whose queries restructure its
+    // splay trees, so those run one at a time under the instance's lock.
     public boolean canTransmit(int sender, int receiver, int maxStrength) {
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(sender);
-        visited.add(sender);
-
-        while (!queue.isEmpty()) {
-            int curr = queue.poll();
-            if (curr == receiver) return true;
-
-            for (int[] neighbor : graph.get(curr)) {
-                int next = neighbor[0], strength = neighbor[1];
-                if (strength < maxStrength && !visited.contains(next)) {
-                    visited.add(next);
-                    queue.add(next);
+        if (sender == receiver) return true;
+        DynamicForest dynamic = forest;
+        if (dynamic != null) {
+            synchronized (this) {
+                return dynamic.canTransmit(sender, receiver, maxStrength);
+            }
+        }
+        int lca = lowestCommonAncestor(sender, receiver);
+        return lca >= 0 && treeWeight[lca - n] < maxStrength;
+    }
+
+    // Lowest common ancestor in the reconstruction tree, or -1 if u and v are in
+    // different components. Climbs one heavy-light chain at a time.
+    private int lowestCommonAncestor(int u, int v) {
+        while (chainHead[u] != chainHead[v]) {
+            if (treeDepth[chainHead[u]] < treeDepth[chainHead[v]]) {
+                int swap = u;
+                u = v;
+                v = swap;
+            }
+            if (treeParent[chainHead[u]] < 0) return -1;   // both heads are roots
+            u = treeParent[chainHead[u]];
+        }
+        return treeDepth[u] < treeDepth[v] ? u : v;
+    }
+
+    // Breadth-first search over the links weaker than maxStrength. Rows are sorted, so
+    // each row is scanned only up to its first link at or above the limit. Uses the
+    // shared scratch arrays, so searches on one instance must not run concurrently.
+    // After addLink / removeLink the first search rebuilds the rows in O(E log E), so
+    // interleaved updates and queries are better served by canTransmit.
+    public boolean canTransmitSearch(int sender, int receiver, int maxStrength) {
+        if (sender == receiver) return true;
+        LinkTable links = currentTable();
+        int[] offsets = links.offsets, targets = links.targets, strengths = links.strengths;
+        int stamp = nextEpoch();
+        int head = 0, tail = 0;
+        queue[tail++] = sender;
+        visitedEpoch[sender] = stamp;
+
+        while (head < tail) {
+            int curr = queue[head++];
+            for (int e = offsets[curr], end = offsets[curr + 1]; e < end && strengths[e] < maxStrength; e++) {
+                int next = targets[e];
+                if (visitedEpoch[next] != stamp) {
+                    if (next == receiver) return true;
+                    visitedEpoch[next] = stamp;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // Breadth-first search from both ends at once, always growing the side with the
+    // smaller frontier by a whole level; succeeds as soon as the two sides touch. The
+    // forward side fills the shared queue from the front and the backward side from the
+    // back, which cannot collide because every office is visited by at most one side.
+    // Like canTransmitSearch, the first call after an update rebuilds the rows.
+    public boolean canTransmitBidirectional(int sender, int receiver, int maxStrength) {
+        if (sender == receiver) return true;
+        LinkTable links = currentTable();
+        int forward = nextEpoch(), backward = nextEpoch();
+        int forwardHead = 0, forwardTail = 0, backwardHead = n - 1, backwardTail = n - 1;
+        queue[forwardTail++] = sender;
+        visitedEpoch[sender] = forward;
+        queue[backwardTail--] = receiver;
+        visitedEpoch[receiver] = backward;
+
+        while (forwardHead < forwardTail && backwardHead > backwardTail) {
+            if (forwardTail - forwardHead <= backwardHead - backwardTail) {
+                int end = forwardTail;
+                forwardTail = expandLevel(links, forwardHead, end, forwardTail, 1, forward, backward, maxStrength);
+                forwardHead = end;
+                if (forwardTail == Integer.MIN_VALUE) return true;
+            } else {
+                int end = backwardTail;
+                backwardTail = expandLevel(links, backwardHead, end, backwardTail, -1, backward, forward, maxStrength);
+                backwardHead = end;
+                if (backwardTail == Integer.MIN_VALUE) return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Visits the rows of queue[head], queue[head + step], ... up to end, appending new
+    // offices at tail in the same direction. Returns the new tail, or Integer.MIN_VALUE
+    // when an office of the other side is reached.
+    private int expandLevel(LinkTable links, int head, int end, int tail, int step, int own, int other,
+                            int maxStrength) {
+        int[] offsets = links.offsets, targets = links.targets, strengths = links.strengths;
+        for (int i = head; i != end; i += step) {
+            int curr = queue[i];
+            for (int e = offsets[curr], rowEnd = offsets[curr + 1]; e < rowEnd && strengths[e] < maxStrength; e++) {
+                int next = targets[e];
+                int stamp = visitedEpoch[next];
+                if (stamp == other) return Integer.MIN_VALUE;
+                if (stamp != own) {
+                    visitedEpoch[next] = own;
+                    queue[tail] = next;
+                    tail += step;
                 }
             }
         }
+        return tail;
+    }
+
+    // Level-synchronous BFS for very large graphs: each frontier is cut into slices of
+    // FRONTIER_CHUNK offices that workers expand independently, claiming offices in a
+    // shared atomic bitmap so each one joins exactly one next frontier. Does not touch
+    // the instance's search scratch, so several calls may run at the same time. Like
+    // canTransmitSearch, the first call after an update rebuilds the rows.
+    public boolean canTransmitParallel(int sender, int receiver, int maxStrength) {
+        return canTransmitParallel(sender, receiver, maxStrength, ForkJoinPool.commonPool());
+    }
+
+    public boolean canTransmitParallel(int sender, int receiver, int maxStrength, ForkJoinPool pool) {
+        if (sender == receiver) return true;
+        LinkTable links = currentTable();
+        AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+        claim(visited, sender);
+        int[] frontier = {sender};
+
+        while (frontier.length > 0) {
+            if (frontier.length <= FRONTIER_CHUNK) {
+                frontier = expandFrontier(links, frontier, 0, frontier.length, visited, receiver, maxStrength);
+                if (frontier == null) return true;
+                continue;
+            }
+
+            int[] current = frontier;
+            int[][] parts = new int[(current.length + FRONTIER_CHUNK - 1) / FRONTIER_CHUNK][];
+            pool.submit(() -> IntStream.range(0, parts.length).parallel().forEach(c ->
+                parts[c] = expandFrontier(links, current, c * FRONTIER_CHUNK,
+                    Math.min(current.length, (c + 1) * FRONTIER_CHUNK), visited, receiver, maxStrength)
+            )).join();
+
+            int size = 0;
+            for (int[] part : parts) {
+                if (part == null) return true;
+                size += part.length;
+            }
+            frontier = new int[size];
+            size = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, frontier, size, part.length);
+                size += part.length;
+            }
+        }
 
         return false;
     }
 
+    // Offices first reached from frontier[from, to), or null once the receiver has been
+    // claimed (by this slice or, as seen through the bitmap, by another one)
+    private int[] expandFrontier(LinkTable links, int[] frontier, int from, int to, AtomicLongArray visited,
+                                 int receiver, int maxStrength) {
+        int[] offsets = links.offsets, targets = links.targets, strengths = links.strengths;
+        int[] next = new int[Math.max(16, to - from)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            if (isClaimed(visited, receiver)) return null;
+            int curr = frontier[i];
+            for (int e = offsets[curr], end = offsets[curr + 1]; e < end && strengths[e] < maxStrength; e++) {
+                int office = targets[e];
+                if (!claim(visited, office)) continue;
+                if (office == receiver) return null;
+                if (size == next.length) next = Arrays.copyOf(next, 2 * size);
+                next[size++] = office;
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private static boolean isClaimed(AtomicLongArray bits, int office) {
+        return (bits.get(office >>> 6) & (1L << office)) != 0;
+    }
+
+    // Sets the office's bit; true only for the caller that actually set it
+    private static boolean claim(AtomicLongArray bits, int office) {
+        int word = office >>> 6;
+        long mask = 1L << office;
+        while (true) {
+            long old = bits.get(word);
+            if ((old & mask) != 0) return false;
+            if (bits.compareAndSet(word, old, old | mask)) return true;
+        }
+    }
+
+    // Starts a new search; the stamps are cleared only when the epoch wraps around
+    private int nextEpoch() {
+        if (++epoch == 0) {
+            Arrays.fill(visitedEpoch, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    // Answers a batch of {sender, receiver, maxStrength} queries offline. Queries are
+    // taken in increasing maxStrength order while a union-find absorbs every link
+    // weaker than the current threshold, so the whole batch costs
+    // O((E + Q) log(E + Q)) for the sorts plus O((E + Q) α(N)) for the unions. The
+    // link sort is done once up front, or again on the first batch after an update.
+    public boolean[] canTransmitAll(int[][] queries) {
+        LinkTable links = currentTable();
+        int[] linkFrom = links.linkFrom, linkTo = links.linkTo, linkStrength = links.linkStrength;
+        long[] order = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            order[i] = ((long) queries[i][2] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] parent = new int[n];
+        byte[] rank = new byte[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+
+        boolean[] answers = new boolean[queries.length];
+        int next = 0;   // first link not yet merged
+        for (long key : order) {
+            int[] query = queries[(int) key];
+            int maxStrength = query[2];
+            while (next < linkStrength.length && linkStrength[next] < maxStrength) {
+                union(parent, rank, linkFrom[next], linkTo[next]);
+                next++;
+            }
+            answers[(int) key] = query[0] == query[1] || find(parent, query[0]) == find(parent, query[1]);
+        }
+        return answers;
+    }
+
+    // Adds an undirected link between offices a and b, O(log N) amortized. The first
+    // update also seeds the dynamic forest, O(E + N).
+    public synchronized void addLink(int a, int b, int strength) {
+        checkOffice(a);
+        checkOffice(b);
+        startUpdates();
+        forest.addLink(a, b, strength);
+        stale = true;
+    }
+
+    // Removes one link between a and b with exactly this strength; returns false if
+    // there is none. Removing a spare link is O(1) expected. Removing a link of the current
+    // spanning forest also searches the smaller of the two pieces it leaves for a
+    // replacement, O(size and links of that piece): cheap when it cuts off a small
+    // branch, but up to O(N) on long chains (around 15 ms per removal at a million
+    // offices), where only tens of such removals per second are possible.
+    public synchronized boolean removeLink(int a, int b, int strength) {
+        checkOffice(a);
+        checkOffice(b);
+        startUpdates();
+        if (!forest.removeLink(a, b, strength)) return false;
+        stale = true;
+        return true;
+    }
+
+    private void checkOffice(int office) {
+        if (office < 0 || office >= n) {
+            throw new IllegalArgumentException("No office " + office + " in a network of " + n);
+        }
+    }
+
+    // Switches canTransmit from the static index to a forest seeded with the current
+    // links. The constructor's Kruskal pass already chose the spanning links, so only
+    // those n - 1 are linked into the tree and every other link is filed as a spare,
+    // O(E + N) in all. Until the first update the table is still the
+    // constructor's, so spanningLinks indexes it.
+    private void startUpdates() {
+        if (forest != null) return;
+        LinkTable links = table;
+        DynamicForest seeded = new DynamicForest(n, links.linkFrom.length, links.offsets);
+        for (int i = 0; i < links.linkFrom.length; i++) {
+            seeded.register(links.linkFrom[i], links.linkTo[i], links.linkStrength[i]);
+        }
+        seeded.attachAll(spanningLinks);     // ids were handed out in table order
+        spanningLinks = null;
+        forest = seeded;
+    }
+
+    // Root of x, halving the path on the way up
+    static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // Union by rank; returns false if a and b were already connected
+    static boolean union(int[] parent, byte[] rank, int a, int b) {
+        a = find(parent, a);
+        b = find(parent, b);
+        if (a == b) return false;
+        if (rank[a] < rank[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        if (rank[a] == rank[b]) rank[a]++;
+        return true;
+    }
+
+    // Links as parallel primitive arrays sorted by strength (ties keep their order),
+    // and the same links as compressed sparse rows: the links of office v are
+    // targets / strengths in [offsets[v], offsets[v + 1]), sorted by strength within
+    // each row. Never modified after construction.
+    private static final class LinkTable {
+        final int[] linkFrom;
+        final int[] linkTo;
+        final int[] linkStrength;
+        final int[] offsets;
+        final int[] targets;
+        final int[] strengths;
+
+        LinkTable(int n, int[] from, int[] to, int[] strength, int count) {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = ((long) strength[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            linkFrom = new int[count];
+            linkTo = new int[count];
+            linkStrength = new int[count];
+            for (int i = 0; i < count; i++) {
+                int link = (int) keys[i];
+                linkFrom[i] = from[link];
+                linkTo[i] = to[link];
+                linkStrength[i] = strength[link];
+            }
+
+            // Filling the rows in global strength order leaves every row sorted
+            offsets = new int[n + 1];
+            for (int i = 0; i < linkFrom.length; i++) {
+                offsets[linkFrom[i] + 1]++;
+                offsets[linkTo[i] + 1]++; // undirected
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            targets = new int[2 * linkFrom.length];
+            strengths = new int[targets.length];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < linkFrom.length; i++) {
+                int a = linkFrom[i], b = linkTo[i];
+                targets[fill[a]] = b;
+                strengths[fill[a]++] = linkStrength[i];
+                targets[fill[b]] = a;
+                strengths[fill[b]++] = linkStrength[i];
+            }
+        }
+    }
+
+    // A minimum spanning forest of the live links kept in a link-cut tree. Every link is
+    // a tree node of its own (after the n offices) whose value is its strength, so the
+    // path maximum between two offices is their minimum possible bottleneck.
+    //  - addLink: a new link either joins two trees, or replaces the strongest link on
+    //    the path it closes if it is weaker than that link, or becomes a spare link.
+    //  - removeLink: a spare link just disappears. Removing a forest link cuts it and
+    //    reconnects the two halves with the weakest spare link between them. Searching
+    //    both halves in lock step stops as soon as the smaller one is exhausted, and
+    //    only that half's links are examined for the replacement.
+    // Queries, insertions and spare removals are O(log N) amortized; a forest link
+    // removal also costs the size and links of the smaller half it leaves behind.
+    private static final class DynamicForest {
+        private final int n;
+        // Splay trees of the link-cut tree; -1 is "none"
+        private int[] left, right, up;
+        private int[] weight;           // link strength, Integer.MIN_VALUE for offices
+        private int[] best;             // node of maximum weight in the splay subtree
+        private boolean[] flipped;      // pending reversal of the subtree
+        private int[] path = new int[16];
+        // Link ids: node n + id, ends from[id] / to[id]; freed ids are reused
+        private int[] from, to;
+        private boolean[] alive, inForest;
+        private int[] free = new int[16];
+        private int freeCount, used, live;
+        // Live links at each office (self-loops excluded); the link's own position in
+        // the rows of its two ends is kept in slotFrom / slotTo for O(1) removal
+        private final int[][] incident;
+        private final int[] degree;
+        private int[] slotFrom, slotTo;
+        // Links between the same two offices are chained through samePair[id] from a
+        // head kept per pair key in an open-addressing table. Free slots hold key -1;
+        // a pair whose links are all gone keeps its slot with head -1 until a rehash.
+        private long[] pairKeys;
+        private int[] pairHeads;
+        private int pairSlots;
+        private int[] samePair;
+        // Two-sided search scratch: sides are told apart by consecutive stamps
+        private final int[] mark, sideA, sideB;
+        private int stamp;
+
+        // rowOffsets (the link table's) sizes each office's incident row up front
+        DynamicForest(int n, int expectedLinks, int[] rowOffsets) {
+            this.n = n;
+            int capacity = Math.max(expectedLinks, 16);
+            left = new int[n + capacity];
+            right = new int[n + capacity];
+            up = new int[n + capacity];
+            weight = new int[n + capacity];
+            best = new int[n + capacity];
+            flipped = new boolean[n + capacity];
+            from = new int[capacity];
+            to = new int[capacity];
+            alive = new boolean[capacity];
+            inForest = new boolean[capacity];
+            samePair = new int[capacity];
+            int slots = 16;
+            while (slots <= 2 * capacity) slots <<= 1;
+            pairKeys = new long[slots];
+            pairHeads = new int[slots];
+            Arrays.fill(pairKeys, -1L);
+            slotFrom = new int[capacity];
+            slotTo = new int[capacity];
+            incident = new int[n][];
+            degree = new int[n];
+            mark = new int[n];
+            sideA = new int[n];
+            sideB = new int[n];
+            for (int v = 0; v < n; v++) {
+                resetNode(v, Integer.MIN_VALUE);
+                incident[v] = new int[Math.max(rowOffsets[v + 1] - rowOffsets[v], 2)];
+            }
+        }
+
+        int linkCount() {
+            return live;
+        }
+
+        void copyLinks(int[] fromOut, int[] toOut, int[] strengthOut) {
+            for (int id = 0, i = 0; id < used; id++) {
+                if (!alive[id]) continue;
+                fromOut[i] = from[id];
+                toOut[i] = to[id];
+                strengthOut[i++] = weight[n + id];
+            }
+        }
+
+        boolean canTransmit(int a, int b, int maxStrength) {
+            if (a == b) return true;
+            if (!connected(a, b)) return false;
+            return weight[pathMax(a, b)] < maxStrength;
+        }
+
+        void addLink(int a, int b, int strength) {
+            int id = register(a, b, strength);
+            if (a == b) return;     // a self-loop never helps a transmission
+
+            if (!connected(a, b)) {
+                attach(id);
+                return;
+            }
+            int strongest = pathMax(a, b);
+            if (weight[strongest] > strength) {
+                detach(strongest - n);
+                attach(id);
+            }
+        }
+
+        // Records a live link as a spare, without touching the tree; returns its id
+        int register(int a, int b, int strength) {
+            int id = allocate();
+            from[id] = a;
+            to[id] = b;
+            alive[id] = true;
+            live++;
+            resetNode(n + id, strength);
+            addPair(a, b, id);
+            if (a != b) {
+                slotFrom[id] = addIncident(a, id);
+                slotTo[id] = addIncident(b, id);
+            }
+            return id;
+        }
+
+        // Puts the given acyclic set of spare links into a forest that has no links yet.
+        // With every node its own splay tree, a rooted forest is nothing but path-parent
+        // pointers, so a BFS over those links builds it in O(N) without any splaying.
+        void attachAll(int[] ids) {
+            int[] offsets = new int[n + 1];
+            for (int id : ids) {
+                offsets[from[id] + 1]++;
+                offsets[to[id] + 1]++;
+            }
+            for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+            int[] links = new int[2 * ids.length];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int id : ids) {
+                links[fill[from[id]]++] = id;
+                links[fill[to[id]]++] = id;
+                inForest[id] = true;
+            }
+
+            int seen = ++stamp;
+            for (int root = 0; root < n; root++) {
+                if (mark[root] == seen) continue;
+                mark[root] = seen;
+                int head = 0, tail = 0;
+                sideA[tail++] = root;
+                while (head < tail) {
+                    int v = sideA[head++];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int id = links[e], child = from[id] == v ? to[id] : from[id];
+                        if (mark[child] == seen) continue;
+                        mark[child] = seen;
+                        up[n + id] = v;
+                        up[child] = n + id;
+                        sideA[tail++] = child;
+                    }
+                }
+            }
+        }
+
+        boolean removeLink(int a, int b, int strength) {
+            int id = removePair(a, b, strength);
+            if (id < 0) return false;
+
+            if (from[id] != to[id]) {
+                removeIncident(from[id], slotFrom[id]);
+                removeIncident(to[id], slotTo[id]);
+            }
+            if (inForest[id]) {
+                detach(id);
+                int replacement = weakestBetween(from[id], to[id]);
+                if (replacement >= 0) attach(replacement);
+            }
+            alive[id] = false;
+            live--;
+            if (freeCount == free.length) free = Arrays.copyOf(free, 2 * freeCount);
+            free[freeCount++] = id;
+            return true;
+        }
+
+        private int allocate() {
+            if (freeCount > 0) return free[--freeCount];
+            if (used == from.length) {
+                int capacity = 2 * used;
+                left = Arrays.copyOf(left, n + capacity);
+                right = Arrays.copyOf(right, n + capacity);
+                up = Arrays.copyOf(up, n + capacity);
+                weight = Arrays.copyOf(weight, n + capacity);
+                best = Arrays.copyOf(best, n + capacity);
+                flipped = Arrays.copyOf(flipped, n + capacity);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                alive = Arrays.copyOf(alive, capacity);
+                inForest = Arrays.copyOf(inForest, capacity);
+                samePair = Arrays.copyOf(samePair, capacity);
+                slotFrom = Arrays.copyOf(slotFrom, capacity);
+                slotTo = Arrays.copyOf(slotTo, capacity);
+            }
+            return used++;
+        }
+
+        private int addIncident(int v, int id) {
+            if (degree[v] == incident[v].length) incident[v] = Arrays.copyOf(incident[v], 2 * degree[v]);
+            incident[v][degree[v]] = id;
+            return degree[v]++;
+        }
+
+        private void removeIncident(int v, int slot) {
+            int moved = incident[v][--degree[v]];
+            incident[v][slot] = moved;
+            if (from[moved] == v) slotFrom[moved] = slot; else slotTo[moved] = slot;
+        }
+
+        // After a forest link between a and b was cut: explores both trees one office
+        // at a time until one is exhausted, then returns the weakest spare link leaving
+        // that tree, or -1 if the trees stay apart
+        private int weakestBetween(int a, int b) {
+            if (stamp > Integer.MAX_VALUE - 2) {
+                Arrays.fill(mark, 0);
+                stamp = 0;
+            }
+            int stampA = ++stamp, stampB = ++stamp;
+            int headA = 0, tailA = 0, headB = 0, tailB = 0;
+            sideA[tailA++] = a;
+            mark[a] = stampA;
+            sideB[tailB++] = b;
+            mark[b] = stampB;
+            while (headA < tailA && headB < tailB) {
+                tailA = expand(sideA[headA++], sideA, tailA, stampA);
+                tailB = expand(sideB[headB++], sideB, tailB, stampB);
+            }
+            int[] side = headA == tailA ? sideA : sideB;
+            int size = headA == tailA ? tailA : tailB, own = headA == tailA ? stampA : stampB;
+
+            int weakest = -1;
+            for (int i = 0; i < size; i++) {
+                int v = side[i];
+                for (int j = 0; j < degree[v]; j++) {
+                    int id = incident[v][j];
+                    if (inForest[id]) continue;
+                    int other = from[id] == v ? to[id] : from[id];
+                    if (mark[other] != own && (weakest < 0 || weight[n + id] < weight[n + weakest])) {
+                        weakest = id;
+                    }
+                }
+            }
+            return weakest;
+        }
+
+        // Appends the unmarked forest neighbours of v to side
+        private int expand(int v, int[] side, int tail, int own) {
+            for (int j = 0; j < degree[v]; j++) {
+                int id = incident[v][j];
+                if (!inForest[id]) continue;
+                int other = from[id] == v ? to[id] : from[id];
+                if (mark[other] != own) {
+                    mark[other] = own;
+                    side[tail++] = other;
+                }
+            }
+            return tail;
+        }
+
+        private static long pairKey(int a, int b) {
+            return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        }
+
+        // Slot holding key, or the free slot where it would go
+        private int pairSlot(long key) {
+            int mask = pairKeys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (pairKeys[slot] != -1L && pairKeys[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void addPair(int a, int b, int id) {
+            long key = pairKey(a, b);
+            int slot = pairSlot(key);
+            if (pairKeys[slot] == -1L) {
+                pairKeys[slot] = key;
+                pairHeads[slot] = -1;
+                pairSlots++;
+            }
+            samePair[id] = pairHeads[slot];
+            pairHeads[slot] = id;
+            if (2 * pairSlots > pairKeys.length) rehashPairs();
+        }
+
+        // Unchains a link between a and b with this strength; returns its id or -1
+        private int removePair(int a, int b, int strength) {
+            int slot = pairSlot(pairKey(a, b));
+            if (pairKeys[slot] == -1L) return -1;
+            for (int previous = -1, id = pairHeads[slot]; id >= 0; previous = id, id = samePair[id]) {
+                if (weight[n + id] != strength) continue;
+                if (previous < 0) pairHeads[slot] = samePair[id]; else samePair[previous] = samePair[id];
+                return id;
+            }
+            return -1;
+        }
+
+        // Rebuilds the pair table without the emptied pairs, at most a quarter full
+        private void rehashPairs() {
+            long[] oldKeys = pairKeys;
+            int[] oldHeads = pairHeads;
+            int livePairs = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1L && oldHeads[i] >= 0) livePairs++;
+            }
+            int slots = 16;
+            while (slots <= 4 * livePairs) slots <<= 1;
+            pairKeys = new long[slots];
+            pairHeads = new int[slots];
+            Arrays.fill(pairKeys, -1L);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == -1L || oldHeads[i] < 0) continue;
+                int slot = pairSlot(oldKeys[i]);
+                pairKeys[slot] = oldKeys[i];
+                pairHeads[slot] = oldHeads[i];
+            }
+            pairSlots = livePairs;
+        }
+
+        private void resetNode(int x, int value) {
+            left[x] = right[x] = up[x] = -1;
+            weight[x] = value;
+            best[x] = x;
+            flipped[x] = false;
+        }
+
+        private void attach(int id) {
+            link(from[id], n + id);
+            link(n + id, to[id]);
+            inForest[id] = true;
+        }
+
+        private void detach(int id) {
+            cut(from[id], n + id);
+            cut(n + id, to[id]);
+            inForest[id] = false;
+        }
+
+        // Link-cut tree primitives
+
+        private boolean isRoot(int x) {
+            int p = up[x];
+            return p < 0 || (left[p] != x && right[p] != x);
+        }
+
+        private void flip(int x) {
+            int swap = left[x];
+            left[x] = right[x];
+            right[x] = swap;
+            flipped[x] = !flipped[x];
+        }
+
+        private void push(int x) {
+            if (!flipped[x]) return;
+            if (left[x] >= 0) flip(left[x]);
+            if (right[x] >= 0) flip(right[x]);
+            flipped[x] = false;
+        }
+
+        private void pull(int x) {
+            int b = x;
+            if (left[x] >= 0 && weight[best[left[x]]] > weight[b]) b = best[left[x]];
+            if (right[x] >= 0 && weight[best[right[x]]] > weight[b]) b = best[right[x]];
+            best[x] = b;
+        }
+
+        private void rotate(int x) {
+            int p = up[x], g = up[p];
+            if (!isRoot(p)) {
+                if (left[g] == p) left[g] = x; else right[g] = x;
+            }
+            up[x] = g;
+            if (left[p] == x) {
+                left[p] = right[x];
+                if (right[x] >= 0) up[right[x]] = p;
+                right[x] = p;
+            } else {
+                right[p] = left[x];
+                if (left[x] >= 0) up[left[x]] = p;
+                left[x] = p;
+            }
+            up[p] = x;
+            pull(p);
+            pull(x);
+        }
+
+        private void splay(int x) {
+            int depth = 0;
+            for (int y = x; ; y = up[y]) {
+                if (depth == path.length) path = Arrays.copyOf(path, 2 * depth);
+                path[depth++] = y;
+                if (isRoot(y)) break;
+            }
+            while (depth > 0) push(path[--depth]);
+
+            while (!isRoot(x)) {
+                int p = up[x];
+                if (!isRoot(p)) {
+                    int g = up[p];
+                    rotate((left[g] == p) == (left[p] == x) ? p : x);
+                }
+                rotate(x);
+            }
+        }
+
+        private void access(int x) {
+            for (int last = -1, y = x; y >= 0; last = y, y = up[y]) {
+                splay(y);
+                right[y] = last;
+                pull(y);
+            }
+            splay(x);
+        }
+
+        private void makeRoot(int x) {
+            access(x);
+            flip(x);
+        }
+
+        private int findRoot(int x) {
+            access(x);
+            while (true) {
+                push(x);
+                if (left[x] < 0) break;
+                x = left[x];
+            }
+            splay(x);
+            return x;
+        }
+
+        private boolean connected(int a, int b) {
+            return findRoot(a) == findRoot(b);
+        }
+
+        private void link(int x, int y) {
+            makeRoot(x);
+            up[x] = y;
+        }
+
+        // x and y must be adjacent: after makeRoot(x) and access(y), x is y's left child
+        private void cut(int x, int y) {
+            makeRoot(x);
+            access(y);
+            left[y] = -1;
+            up[x] = -1;
+            pull(y);
+        }
+
+        // Node of the strongest link on the path between connected offices a and b
+        private int pathMax(int a, int b) {
+            makeRoot(a);
+            access(b);
+            return best[b];
+        }
+    }
+
     public static void main(String[] args) {
         int[][] links = {
             {0, 2, 4},
@@ -97,5 +994,17 @@ public class Question4a {
         System.out.println(st.canTransmit(1, 3, 3)); // false
         System.out.println(st.canTransmit(2, 0, 3)); // true
         System.out.println(st.canTransmit(0, 5, 6)); // false
+
+        int[][] queries = {{2, 3, 2}, {1, 3, 3}, {2, 0, 3}, {0, 5, 6}, {1, 0, 5}};
+        System.out.println(Arrays.toString(st.canTransmitAll(queries))); // [true, false, false, false, true]
+
+        st.addLink(3, 0, 2);
+        System.out.println(st.canTransmit(2, 0, 3)); // true
+        st.removeLink(2, 3, 1);
+        System.out.println(st.canTransmit(2, 0, 3)); // false
+        st.addLink(2, 4, 1);
+        System.out.println(st.canTransmitSearch(1, 5, 6)); // true
+        System.out.println(st.canTransmitBidirectional(1, 5, 5)); // false
+        System.out.println(st.canTransmitParallel(1, 4, 4)); // true
     }
 }